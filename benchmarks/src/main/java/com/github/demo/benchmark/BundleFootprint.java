@@ -0,0 +1,69 @@
+package com.github.demo.benchmark;
+
+import com.github.demo.context.BundleStorage;
+import com.github.demo.support.LocalPropertiesHolder;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Retained heap, direct memory and GC time of a set of bundles with each {@link BundleStorage}.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.github.demo.benchmark.BundleFootprint [keys] [locales]
+ * </pre>
+ */
+public final class BundleFootprint {
+
+    private BundleFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 150000;
+        int locales = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        String[] codes = Bundles.codes(keys);
+        for (BundleStorage storage : BundleStorage.values()) {
+            long heapBefore = usedHeap();
+            long directBefore = usedDirect();
+            long gcBefore = gcTimeMs();
+            List<LocalPropertiesHolder> holders = new ArrayList<>(locales);
+            for (int i = 0; i < locales; i++) {
+                Properties properties = Bundles.properties(codes, "l" + i);
+                holders.add(new LocalPropertiesHolder(properties, null, null, storage));
+            }
+            long heap = usedHeap() - heapBefore;
+            System.out.printf("%-8s %d locales x %d keys: heap %d MB, direct %d MB, gc %d ms%n", storage, locales, keys,
+                    heap >> 20, (usedDirect() - directBefore) >> 20, gcTimeMs() - gcBefore);
+            holders.clear();
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+
+    private static long gcTimeMs() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.demo.benchmark;
+
+import com.github.demo.context.MessageSourceProperties;
+import com.github.demo.support.ConfigBackendMessageSource;
+import com.github.demo.support.InMemoryConfigBackend;
+import com.github.demo.support.LocalPropertiesHolder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.DefaultPropertiesPersister;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reloading a whole bundle: the former byte stream / reader / {@link Properties} round trip
+ * against the current reload path of the message source, which parses the content in place and in
+ * parallel chunks for large bundles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BundleReloadBenchmark {
+
+    @Param({"20000", "200000"})
+    private int size;
+
+    private String content;
+
+    private InMemoryConfigBackend backend;
+
+    @Setup
+    public void setup() {
+        this.content = Bundles.toProperties(Bundles.codes(this.size), "default");
+        this.backend = new InMemoryConfigBackend();
+        this.backend.put("messages", this.content);
+        ConfigBackendMessageSource messageSource = new ConfigBackendMessageSource(new MessageSourceProperties(), this.backend);
+        messageSource.setDefaultLocale(Locale.ROOT);
+        // Load the bundle, so that every put reloads it.
+        messageSource.getMessage("missing", null, "default", Locale.ROOT);
+    }
+
+    @Benchmark
+    public LocalPropertiesHolder persisterRoundTrip() throws IOException {
+        Properties props = new Properties();
+        new DefaultPropertiesPersister().load(props, new InputStreamReader(
+                new ByteArrayInputStream(this.content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+        return new LocalPropertiesHolder(props);
+    }
+
+    @Benchmark
+    public void reload() {
+        this.backend.put("messages", this.content);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.demo.benchmark;
+
+import com.github.demo.context.BundleStorage;
+import com.github.demo.support.LocalPropertiesHolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup throughput of on-heap and off-heap bundles. Run with {@code -prof gc} to compare allocation rates,
+ * and see {@link BundleFootprint} for the retained heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BundleStorageBenchmark {
+
+    @Param({"HEAP", "OFF_HEAP"})
+    private BundleStorage storage;
+
+    @Param({"150000"})
+    private int size;
+
+    /** Share of the lookups that go to the 1% hottest codes. */
+    @Param({"0.9"})
+    private double hotRatio;
+
+    private LocalPropertiesHolder holder;
+
+    private String[] codes;
+
+    @Setup
+    public void setup() {
+        this.codes = Bundles.codes(this.size);
+        Properties properties = Bundles.properties(this.codes, "en");
+        this.holder = new LocalPropertiesHolder(properties, null, null, this.storage);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String getProperty() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int bound = random.nextDouble() < this.hotRatio ? Math.max(1, this.codes.length / 100) : this.codes.length;
+        return this.holder.getProperty(this.codes[random.nextInt(bound)]);
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.demo.benchmark;
+
+import java.util.Properties;
+
+/**
+ * Realistic looking bundle content shared by the benchmarks.
+ */
+final class Bundles {
+
+    private Bundles() {
+    }
+
+    static String[] codes(int size) {
+        String[] codes = new String[size];
+        for (int i = 0; i < size; i++) {
+            codes[i] = "module" + (i % 50) + ".page" + (i % 17) + ".message" + i;
+        }
+        return codes;
+    }
+
+    static Properties properties(String[] codes, String language) {
+        Properties properties = new Properties();
+        for (int i = 0; i < codes.length; i++) {
+            properties.setProperty(codes[i], "[" + language + "] Message number " + i + " for {0}, please check the value {1}");
+        }
+        return properties;
+    }
+
+    static String toProperties(String[] codes, String language) {
+        StringBuilder content = new StringBuilder(codes.length * 80);
+        for (int i = 0; i < codes.length; i++) {
+            content.append(codes[i]).append('=').append('[').append(language).append("] Message number ")
+                    .append(i).append(" for {0}, please check the value {1}\n");
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.demo.benchmark;
+
+import com.github.demo.context.ConsulMessageSourceProperties;
+import com.github.demo.context.FileMessageSourceProperties;
+import com.github.demo.context.MessageSourceProperties;
+import com.github.demo.context.NacosMessageSourceProperties;
+import com.github.demo.support.ConfigBackendMessageSource;
+import com.github.demo.support.ConsulConfigMessageSource;
+import com.github.demo.support.FileConfigMessageSource;
+import com.github.demo.support.InMemoryConfigBackend;
+import com.github.demo.support.LocaleChainScope;
+import com.github.demo.support.NacosConfigMessageSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.consul.config.ConsulConfigProperties;
+import org.springframework.context.MessageSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * End-to-end {@link MessageSource#getMessage} cost of the message sources against in-memory backends.
+ * <p>
+ * Bundles: {@code messages} holds every code, {@code messages_zh} half of them and {@code messages_zh_CN}
+ * a quarter, so codes resolve at different depths of the {@code zh_CN} fallback chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageSourceBenchmark {
+
+    private static final Locale LOCALE = Locale.SIMPLIFIED_CHINESE;
+
+    private static final int PAGE_SIZE = 100;
+
+    public enum Backend {
+        CONSUL, NACOS, MEMORY, FILE
+    }
+
+    public enum Profile {
+        /** Out of the box settings. */
+        DEFAULT,
+        /** Flattened lookup and precompiled formats. */
+        OPTIMIZED
+    }
+
+    @Param({"CONSUL", "NACOS", "MEMORY", "FILE"})
+    private Backend backend;
+
+    @Param({"DEFAULT", "OPTIMIZED"})
+    private Profile profile;
+
+    @Param({"20000"})
+    private int size;
+
+    private MessageSource messageSource;
+
+    private MessageSource codeAsDefaultSource;
+
+    private String[] codes;
+
+    /** Codes only present in the default bundle, resolved at the end of the chain. */
+    private String[] fallbackCodes;
+
+    private Object[] args;
+
+    /** Codes rendered by one page, spread over every depth of the chain. */
+    private List<String> pageCodes;
+
+    private BiFunction<Collection<String>, Locale, Map<String, String>> resolveAll;
+
+    @Setup
+    public void setup() throws IOException {
+        this.codes = Bundles.codes(this.size);
+        this.fallbackCodes = Arrays.copyOfRange(this.codes, this.size / 2, this.size);
+        this.args = new Object[]{"John", 42};
+        this.pageCodes = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            this.pageCodes.add(this.codes[i * (this.size / PAGE_SIZE)]);
+        }
+        this.messageSource = createMessageSource(false);
+        this.codeAsDefaultSource = createMessageSource(true);
+    }
+
+    private MessageSource createMessageSource(boolean useCodeAsDefaultMessage) throws IOException {
+        String bundle = Bundles.toProperties(this.codes, "default");
+        String zh = Bundles.toProperties(Arrays.copyOf(this.codes, this.size / 2), "zh");
+        String zhCn = Bundles.toProperties(Arrays.copyOf(this.codes, this.size / 4), "zh_CN");
+        ConfigBackendMessageSource source;
+        if (this.backend == Backend.CONSUL) {
+            StubConsulClient consul = new StubConsulClient();
+            consul.put("messages", bundle);
+            consul.put("messages_zh", zh);
+            consul.put("messages_zh_CN", zhCn);
+            ConsulMessageSourceProperties properties = configure(new ConsulMessageSourceProperties());
+            source = new ConsulConfigMessageSource(properties, new ConsulConfigProperties(), consul);
+        } else if (this.backend == Backend.NACOS) {
+            StubConfigService configService = new StubConfigService();
+            configService.publishConfig("messages", "DEFAULT_GROUP", bundle);
+            configService.publishConfig("messages_zh", "DEFAULT_GROUP", zh);
+            configService.publishConfig("messages_zh_CN", "DEFAULT_GROUP", zhCn);
+            NacosMessageSourceProperties properties = configure(new NacosMessageSourceProperties());
+            source = new NacosConfigMessageSource(properties, configService);
+        } else if (this.backend == Backend.FILE) {
+            Path directory = Files.createTempDirectory("i18n-benchmark");
+            Files.write(directory.resolve("messages.properties"), bundle.getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("messages_zh.properties"), zh.getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("messages_zh_CN.properties"), zhCn.getBytes(StandardCharsets.UTF_8));
+            FileMessageSourceProperties properties = configure(new FileMessageSourceProperties());
+            properties.setDirectory(directory.toString());
+            properties.setWatch(false);
+            source = new FileConfigMessageSource(properties);
+        } else {
+            InMemoryConfigBackend memory = new InMemoryConfigBackend();
+            memory.put("messages", bundle);
+            memory.put("messages_zh", zh);
+            memory.put("messages_zh_CN", zhCn);
+            source = new ConfigBackendMessageSource(configure(new MessageSourceProperties()), memory);
+        }
+        if (!useCodeAsDefaultMessage) {
+            this.resolveAll = source::resolveAll;
+        }
+        source.setDefaultLocale(Locale.ENGLISH);
+        source.setUseCodeAsDefaultMessage(useCodeAsDefaultMessage);
+        // Warm every bundle of the chain.
+        source.getMessage(this.codes[0], null, LOCALE);
+        return source;
+    }
+
+    private <T extends MessageSourceProperties> T configure(T properties) {
+        properties.setFlattenedLookup(this.profile == Profile.OPTIMIZED);
+        properties.setPrecompiledFormat(this.profile == Profile.OPTIMIZED);
+        return properties;
+    }
+
+    @Benchmark
+    public String hit() {
+        return this.messageSource.getMessage(this.codes[random(this.size / 4)], null, LOCALE);
+    }
+
+    @Benchmark
+    public String missWithFallback() {
+        return this.messageSource.getMessage(this.fallbackCodes[random(this.fallbackCodes.length)], null, LOCALE);
+    }
+
+    @Benchmark
+    public String parameterizedFormat() {
+        return this.messageSource.getMessage(this.codes[random(this.size)], this.args, LOCALE);
+    }
+
+    @Benchmark
+    public String codeAsDefault() {
+        return this.codeAsDefaultSource.getMessage("missing.code" + random(64), null, LOCALE);
+    }
+
+    @Benchmark
+    public void page(Blackhole blackhole) {
+        for (String code : this.pageCodes) {
+            blackhole.consume(this.messageSource.getMessage(code, null, LOCALE));
+        }
+    }
+
+    @Benchmark
+    public void pageInRequestScope(Blackhole blackhole) {
+        // One request with the request cache filter: the chain is resolved by the first lookup.
+        LocaleChainScope previous = LocaleChainScope.open(true);
+        try {
+            page(blackhole);
+        } finally {
+            LocaleChainScope.restore(previous);
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> pageResolveAll() {
+        return this.resolveAll.apply(this.pageCodes, LOCALE);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String contendedHit() {
+        return hit();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String contendedParameterizedFormat() {
+        // Few distinct codes, so many threads format the same message concurrently.
+        return this.messageSource.getMessage(this.codes[random(8)], this.args, LOCALE);
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+}
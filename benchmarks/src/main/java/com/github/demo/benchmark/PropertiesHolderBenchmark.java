@@ -0,0 +1,57 @@
+package com.github.demo.benchmark;
+
+import com.github.demo.support.LocalPropertiesHolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LocalPropertiesHolder#getProperty(String)} with a plain {@link Properties}
+ * ({@code Hashtable}) lookup, which is what the holder delegated to before, from many threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertiesHolderBenchmark {
+
+    @Param({"1000", "20000"})
+    private int size;
+
+    private Properties properties;
+
+    private LocalPropertiesHolder holder;
+
+    private String[] codes;
+
+    @Setup
+    public void setup() {
+        this.properties = new Properties();
+        this.codes = new String[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.codes[i] = "module" + (i % 50) + ".message.code" + i;
+            this.properties.setProperty(this.codes[i], "Message number " + i + " with argument {0}");
+        }
+        this.holder = new LocalPropertiesHolder(this.properties);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String hashtableProperties() {
+        return this.properties.getProperty(nextCode());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String localPropertiesHolder() {
+        return this.holder.getProperty(nextCode());
+    }
+
+    private String nextCode() {
+        return this.codes[ThreadLocalRandom.current().nextInt(this.codes.length)];
+    }
+}
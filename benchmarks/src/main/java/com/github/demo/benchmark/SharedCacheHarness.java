@@ -0,0 +1,332 @@
+package com.github.demo.benchmark;
+
+import com.github.demo.context.MessageSourceProperties;
+import com.github.demo.support.BundleContent;
+import com.github.demo.support.ConfigBackend;
+import com.github.demo.support.ConfigBackendMessageSource;
+import com.github.demo.support.InMemoryConfigBackend;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Co-located services with and without the shared cache. The harness serves the bundles over HTTP, counting
+ * the requests, and starts the given number of JVMs that resolve every message of every locale at the same
+ * time. The bundles are then updated and every JVM reloads them once the shared entries are stale. Each JVM
+ * reports a digest of what it resolved, which must match the content served.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.github.demo.benchmark.SharedCacheHarness [processes] [keys] [shared-dir]
+ * </pre>
+ */
+public final class SharedCacheHarness {
+
+    private static final String BASENAME = "messages";
+
+    /** {@code fr_CA} has no bundle of its own, so its lookups also exercise the missing bundles. */
+    private static final List<Locale> LOCALES = Stream.of("en", "fr", "fr_CA", "de", "es", "it", "ja", "ko", "pt",
+            "ru", "zh", "nl").map(l -> new Locale(l.split("_")[0], l.contains("_") ? l.split("_")[1] : ""))
+            .collect(Collectors.toList());
+
+    private static final long SHARED_TTL_MS = 500;
+
+    private SharedCacheHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "child".equals(args[0])) {
+            child(Integer.parseInt(args[1]), Integer.parseInt(args[2]), args[3]);
+            return;
+        }
+        int processes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        Path sharedDir = args.length > 2 ? Paths.get(args[2])
+                : Files.isDirectory(Paths.get("/dev/shm")) ? Files.createTempDirectory(Paths.get("/dev/shm"), "i18n-harness-")
+                : Files.createTempDirectory("i18n-harness-");
+        String[] codes = Bundles.codes(keys);
+        BundleServer server = new BundleServer();
+        try {
+            System.out.printf("%d processes, %d locales, %d keys per bundle%n", processes, LOCALES.size(), keys);
+            System.out.printf("%-8s %14s %16s %11s%n", "shared", "cold requests", "reload requests", "consistent");
+            round(server, codes, processes, null);
+            round(server, codes, processes, sharedDir);
+        } finally {
+            server.stop();
+            deleteRecursively(sharedDir);
+        }
+    }
+
+    private static void round(BundleServer server, String[] codes, int processes, Path sharedDir) throws Exception {
+        deleteRecursively(sharedDir);
+        server.publish(codes, "v1");
+        server.requests.set(0);
+        List<Child> children = new ArrayList<>(processes);
+        for (int i = 0; i < processes; i++) {
+            children.add(new Child(server.port(), codes.length, sharedDir));
+        }
+        boolean consistent = true;
+        String expected = digest(new ConfigBackendMessageSource(properties(null), server.snapshot()), codes);
+        for (Child child : children) {
+            consistent &= expected.equals(child.await("READY"));
+        }
+        int cold = server.requests.getAndSet(0);
+
+        server.publish(codes, "v2");
+        Thread.sleep(SHARED_TTL_MS + 100);
+        server.requests.set(0);
+        expected = digest(new ConfigBackendMessageSource(properties(null), server.snapshot()), codes);
+        for (Child child : children) {
+            child.send("RELOAD");
+        }
+        for (Child child : children) {
+            consistent &= expected.equals(child.await("RELOADED"));
+            child.close();
+        }
+        int reload = server.requests.get();
+        System.out.printf("%-8s %14d %16d %11s%n", sharedDir != null ? "on" : "off", cold, reload, consistent);
+    }
+
+    /**
+     * One co-located service: resolves every message, then reloads its bundles when asked to.
+     */
+    private static void child(int port, int keys, String sharedDir) throws Exception {
+        String[] codes = Bundles.codes(keys);
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties("-".equals(sharedDir) ? null : sharedDir),
+                new HttpConfigBackend(port));
+        System.out.println("READY " + digest(source, codes));
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        if ("RELOAD".equals(in.readLine())) {
+            for (String filename : filenames()) {
+                source.loadInitialProperties(filename);
+            }
+            System.out.println("RELOADED " + digest(source, codes));
+        }
+        System.exit(0);
+    }
+
+    private static MessageSourceProperties properties(String sharedDir) {
+        MessageSourceProperties properties = new MessageSourceProperties();
+        properties.setBasename(BASENAME);
+        properties.setFallbackToSystemLocale(false);
+        properties.setSharedCacheDir(sharedDir);
+        properties.setSharedCacheTtlMs(SHARED_TTL_MS);
+        return properties;
+    }
+
+    private static List<String> filenames() {
+        List<String> filenames = new ArrayList<>();
+        filenames.add(BASENAME);
+        for (Locale locale : LOCALES) {
+            filenames.add(BASENAME + "_" + locale);
+        }
+        return filenames;
+    }
+
+    private static String digest(ConfigBackendMessageSource source, String[] codes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            List<String> codeList = Arrays.asList(codes);
+            for (Locale locale : LOCALES) {
+                Map<String, String> messages = new TreeMap<>(source.resolveAll(codeList, locale));
+                digest.update(locale.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(messages.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.substring(0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Config server stub, serving {@code GET /bundles/<key>} and counting the requests.
+     */
+    private static final class BundleServer {
+
+        private final HttpServer server;
+
+        private final Map<String, BundleContent> bundles = new ConcurrentHashMap<>();
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private BundleServer() throws IOException {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            this.server.setExecutor(Executors.newFixedThreadPool(8));
+            this.server.createContext("/bundles/", exchange -> {
+                this.requests.incrementAndGet();
+                BundleContent bundle = this.bundles.get(exchange.getRequestURI().getPath().substring("/bundles/".length()));
+                if (bundle == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    byte[] body = bundle.getContent().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("X-Version", bundle.getVersion());
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                }
+                exchange.close();
+            });
+            this.server.start();
+        }
+
+        int port() {
+            return this.server.getAddress().getPort();
+        }
+
+        /**
+         * Bundles of every locale but {@code fr_CA}, whose lookups fall back to {@code fr}.
+         */
+        void publish(String[] codes, String version) {
+            this.bundles.clear();
+            this.bundles.put(BASENAME, new BundleContent(BASENAME, Bundles.toProperties(codes, "default-" + version), version));
+            for (Locale locale : LOCALES) {
+                if (locale.getCountry().isEmpty()) {
+                    String key = BASENAME + "_" + locale;
+                    this.bundles.put(key, new BundleContent(key, Bundles.toProperties(codes, locale + "-" + version), version));
+                }
+            }
+        }
+
+        /**
+         * Backend holding what is served, to compute the expected messages.
+         */
+        InMemoryConfigBackend snapshot() {
+            InMemoryConfigBackend backend = new InMemoryConfigBackend();
+            for (BundleContent bundle : this.bundles.values()) {
+                backend.put(bundle.getKey(), bundle.getContent());
+            }
+            return backend;
+        }
+
+        void stop() {
+            this.server.stop(0);
+            ((ExecutorService) this.server.getExecutor()).shutdownNow();
+        }
+    }
+
+    /**
+     * Backend of the co-located services, one request per fetch.
+     */
+    private static final class HttpConfigBackend implements ConfigBackend {
+
+        private final int port;
+
+        private HttpConfigBackend(int port) {
+            this.port = port;
+        }
+
+        @Override
+        public String getName() {
+            return "http";
+        }
+
+        @Override
+        public BundleContent fetch(String key) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + this.port + "/bundles/" + key)
+                        .openConnection();
+                try {
+                    if (connection.getResponseCode() == 404) {
+                        return null;
+                    }
+                    try (InputStream in = connection.getInputStream()) {
+                        ByteArrayOutputStream body = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[8192];
+                        for (int n; (n = in.read(buffer)) > 0; ) {
+                            body.write(buffer, 0, n);
+                        }
+                        return new BundleContent(key, new String(body.toByteArray(), StandardCharsets.UTF_8),
+                                connection.getHeaderField("X-Version"));
+                    }
+                } finally {
+                    connection.disconnect();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * A co-located service JVM, talking over its standard input and output; log lines are skipped.
+     */
+    private static final class Child {
+
+        private final Process process;
+
+        private final Writer stdin;
+
+        private final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+
+        private Child(int port, int keys, Path sharedDir) throws IOException {
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            this.process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    SharedCacheHarness.class.getName(), "child", String.valueOf(port), String.valueOf(keys),
+                    sharedDir != null ? sharedDir.toString() : "-")
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            this.stdin = new OutputStreamWriter(this.process.getOutputStream(), StandardCharsets.UTF_8);
+            Thread reader = new Thread(() -> {
+                try (BufferedReader out = new BufferedReader(new InputStreamReader(this.process.getInputStream(), StandardCharsets.UTF_8))) {
+                    for (String line; (line = out.readLine()) != null; ) {
+                        if (line.startsWith("READY ") || line.startsWith("RELOADED ")) {
+                            this.replies.add(line);
+                        }
+                    }
+                } catch (IOException ignored) {
+                    // process ended
+                }
+            });
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        /**
+         * @return the digest sent with the reply
+         */
+        String await(String reply) throws InterruptedException {
+            String line = this.replies.poll(2, TimeUnit.MINUTES);
+            if (line == null || !line.startsWith(reply + " ")) {
+                throw new IllegalStateException("expected " + reply + " from child, got " + line);
+            }
+            return line.substring(reply.length() + 1);
+        }
+
+        void send(String command) throws IOException {
+            this.stdin.write(command + "\n");
+            this.stdin.flush();
+        }
+
+        void close() throws InterruptedException {
+            if (!this.process.waitFor(30, TimeUnit.SECONDS)) {
+                this.process.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.demo.benchmark;
+
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
+import com.alibaba.nacos.api.config.listener.Listener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory Nacos config service which notifies listeners synchronously and counts the fetches it serves.
+ */
+public class StubConfigService implements ConfigService {
+
+    private final Map<String, String> configs = new ConcurrentHashMap<>();
+
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    public long getRequests() {
+        return this.requests.get();
+    }
+
+    @Override
+    public String getConfig(String dataId, String group, long timeoutMs) {
+        this.requests.incrementAndGet();
+        return this.configs.get(key(dataId, group));
+    }
+
+    @Override
+    public String getConfigAndSignListener(String dataId, String group, long timeoutMs, Listener listener) {
+        addListener(dataId, group, listener);
+        return getConfig(dataId, group, timeoutMs);
+    }
+
+    @Override
+    public void addListener(String dataId, String group, Listener listener) {
+        this.listeners.computeIfAbsent(key(dataId, group), k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public boolean publishConfig(String dataId, String group, String content) {
+        this.configs.put(key(dataId, group), content);
+        for (Listener listener : this.listeners.getOrDefault(key(dataId, group), new CopyOnWriteArrayList<>())) {
+            if (listener instanceof AbstractSharedListener) {
+                ((AbstractSharedListener) listener).fillContext(dataId, group);
+            }
+            listener.receiveConfigInfo(content);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeConfig(String dataId, String group) {
+        return this.configs.remove(key(dataId, group)) != null;
+    }
+
+    @Override
+    public void removeListener(String dataId, String group, Listener listener) {
+        List<Listener> registered = this.listeners.get(key(dataId, group));
+        if (registered != null) {
+            registered.remove(listener);
+        }
+    }
+
+    @Override
+    public String getServerStatus() {
+        return "UP";
+    }
+
+    private static String key(String dataId, String group) {
+        return group + "/" + dataId;
+    }
+}
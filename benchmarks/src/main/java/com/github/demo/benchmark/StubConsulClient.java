@@ -0,0 +1,63 @@
+package com.github.demo.benchmark;
+
+import com.ecwid.consul.v1.ConsulClient;
+import com.ecwid.consul.v1.QueryParams;
+import com.ecwid.consul.v1.Response;
+import com.ecwid.consul.v1.kv.model.GetValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory Consul KV store, counting the requests it serves.
+ */
+public class StubConsulClient extends ConsulClient {
+
+    private final Map<String, GetValue> values = new ConcurrentHashMap<>();
+
+    private final AtomicLong index = new AtomicLong(1);
+
+    private final AtomicLong requests = new AtomicLong();
+
+    public void put(String key, String content) {
+        GetValue value = new GetValue();
+        value.setKey(key);
+        value.setValue(Base64.getEncoder().encodeToString(content.getBytes(StandardCharsets.UTF_8)));
+        long modifyIndex = this.index.incrementAndGet();
+        value.setCreateIndex(modifyIndex);
+        value.setModifyIndex(modifyIndex);
+        this.values.put(key, value);
+    }
+
+    public long getRequests() {
+        return this.requests.get();
+    }
+
+    @Override
+    public Response<GetValue> getKVValue(String key, String token, QueryParams queryParams) {
+        this.requests.incrementAndGet();
+        return new Response<>(this.values.get(key), this.index.get(), true, 0L);
+    }
+
+    @Override
+    public Response<List<GetValue>> getKVValues(String keyPrefix, String token) {
+        return getKVValues(keyPrefix, token, QueryParams.DEFAULT);
+    }
+
+    @Override
+    public Response<List<GetValue>> getKVValues(String keyPrefix, String token, QueryParams queryParams) {
+        this.requests.incrementAndGet();
+        List<GetValue> result = new ArrayList<>();
+        for (GetValue value : this.values.values()) {
+            if (value.getKey().startsWith(keyPrefix)) {
+                result.add(value);
+            }
+        }
+        return new Response<>(result.isEmpty() ? null : result, this.index.get(), true, 0L);
+    }
+}
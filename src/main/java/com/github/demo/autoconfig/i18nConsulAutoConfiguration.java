@@ -4,14 +4,19 @@ package com.github.demo.autoconfig;
 import com.ecwid.consul.v1.ConsulClient;
 import com.github.demo.context.ConsulMessageSourceProperties;
 import com.github.demo.support.ConsulConfigMessageSource;
+import com.github.demo.support.MessageSourceMetrics;
+import com.github.demo.support.MicrometerMessageSourceMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfigureOrder;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.consul.ConditionalOnConsulEnabled;
+import org.springframework.cloud.consul.ConsulProperties;
 import org.springframework.cloud.consul.config.ConsulConfigProperties;
-import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -27,6 +32,8 @@ public class i18nConsulAutoConfiguration {
 
     public static final String CONFIG_WATCH_TASK_SCHEDULER_NAME = "consulMessageSourceTaskScheduler";
 
+    public static final String METRICS_BEAN_NAME = "consulMessageSourceMetrics";
+
     @Bean
     @ConfigurationProperties(prefix = "i18n.consul")
     public ConsulMessageSourceProperties consulMessageSourceProperties() {
@@ -36,8 +43,12 @@ public class i18nConsulAutoConfiguration {
     @Bean
     @ConditionalOnProperty(name = "spring.cloud.consul.config.watch.enabled",
             matchIfMissing = true)
-    public MessageSource messageSource(ConsulMessageSourceProperties i18nProperties, ConsulConfigProperties properties , ConsulClient consul, @Qualifier(CONFIG_WATCH_TASK_SCHEDULER_NAME) TaskScheduler taskScheduler) {
-        return new ConsulConfigMessageSource(i18nProperties , properties , consul , taskScheduler);
+    @ConditionalOnMissingBean(name = "messageSource")
+    public ConsulConfigMessageSource messageSource(ConsulMessageSourceProperties i18nProperties, ConsulConfigProperties properties , ConsulClient consul, @Qualifier(CONFIG_WATCH_TASK_SCHEDULER_NAME) TaskScheduler taskScheduler,
+                                       @Qualifier(METRICS_BEAN_NAME) ObjectProvider<MessageSourceMetrics> metrics, ObjectProvider<ConsulProperties> agent) {
+        ConsulConfigMessageSource messageSource = new ConsulConfigMessageSource(i18nProperties , properties , consul , taskScheduler, agent.getIfUnique());
+        metrics.ifAvailable(messageSource::setMetrics);
+        return messageSource;
     }
 
     @Bean(name = CONFIG_WATCH_TASK_SCHEDULER_NAME)
@@ -47,4 +58,20 @@ public class i18nConsulAutoConfiguration {
         return new ThreadPoolTaskScheduler();
     }
 
+    /**
+     * Same property conditions as the message source, which looks its metrics up by name.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(name = "i18n.file.enabled", havingValue = "false", matchIfMissing = true)
+    static class ConsulMessageSourceMetricsConfiguration {
+
+        @Bean(name = METRICS_BEAN_NAME)
+        @ConditionalOnProperty(name = "spring.cloud.consul.config.watch.enabled", matchIfMissing = true)
+        public MessageSourceMetrics consulMessageSourceMetrics(ObjectProvider<MeterRegistry> registry) {
+            MeterRegistry meterRegistry = registry.getIfUnique();
+            return meterRegistry != null ? new MicrometerMessageSourceMetrics(meterRegistry, "consul") : MessageSourceMetrics.NOOP;
+        }
+    }
+
 }
@@ -0,0 +1,28 @@
+package com.github.demo.autoconfig;
+
+import com.github.demo.support.LocaleBundleExporter;
+import com.github.demo.web.LocaleBundleController;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.DispatcherServlet;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass(DispatcherServlet.class)
+@ConditionalOnProperty(name = "i18n.export.enabled", havingValue = "true")
+@AutoConfigureAfter({i18nConsulAutoConfiguration.class, i18nNacosAutoConfiguration.class, i18nFileAutoConfiguration.class})
+public class i18nExportAutoConfiguration {
+
+    @Bean
+    @ConditionalOnBean(LocaleBundleExporter.class)
+    @ConditionalOnMissingBean
+    public LocaleBundleController localeBundleController(LocaleBundleExporter exporter) {
+        return new LocaleBundleController(exporter);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.demo.autoconfig;
+
+
+import com.github.demo.context.FileMessageSourceProperties;
+import com.github.demo.support.FileConfigMessageSource;
+import com.github.demo.support.MessageSourceMetrics;
+import com.github.demo.support.MicrometerMessageSourceMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.AutoConfigureOrder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Message source backed by local files, for development, CI and edge deployments. Opt-in, and it takes
+ * precedence over the Consul and Nacos message sources.
+ */
+@Configuration(proxyBeanMethods = false)
+@AutoConfigureOrder(Ordered.HIGHEST_PRECEDENCE)
+@AutoConfigureBefore({i18nConsulAutoConfiguration.class, i18nNacosAutoConfiguration.class})
+@ConditionalOnProperty(name = "i18n.file.enabled", havingValue = "true")
+public class i18nFileAutoConfiguration {
+
+    public static final String METRICS_BEAN_NAME = "fileMessageSourceMetrics";
+
+    @Bean
+    @ConfigurationProperties(prefix = "i18n.file")
+    public FileMessageSourceProperties fileMessageSourceProperties() {
+        return new FileMessageSourceProperties();
+    }
+
+    @Bean
+    public FileConfigMessageSource messageSource(FileMessageSourceProperties i18nProperties,
+                                                 @Qualifier(METRICS_BEAN_NAME) ObjectProvider<MessageSourceMetrics> metrics) {
+        FileConfigMessageSource messageSource = new FileConfigMessageSource(i18nProperties);
+        metrics.ifAvailable(messageSource::setMetrics);
+        return messageSource;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class FileMessageSourceMetricsConfiguration {
+
+        @Bean(name = METRICS_BEAN_NAME)
+        public MessageSourceMetrics fileMessageSourceMetrics(ObjectProvider<MeterRegistry> registry) {
+            MeterRegistry meterRegistry = registry.getIfUnique();
+            return meterRegistry != null ? new MicrometerMessageSourceMetrics(meterRegistry, "file") : MessageSourceMetrics.NOOP;
+        }
+    }
+
+}
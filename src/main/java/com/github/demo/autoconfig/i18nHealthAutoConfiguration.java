@@ -0,0 +1,27 @@
+package com.github.demo.autoconfig;
+
+import com.github.demo.support.ConfigBackendMessageSource;
+import com.github.demo.support.MessageSourceHealthIndicator;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Health of the message source, registered as the {@code i18n} health contributor.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(HealthIndicator.class)
+@AutoConfigureAfter({i18nConsulAutoConfiguration.class, i18nNacosAutoConfiguration.class, i18nFileAutoConfiguration.class})
+public class i18nHealthAutoConfiguration {
+
+    @Bean
+    @ConditionalOnBean(ConfigBackendMessageSource.class)
+    @ConditionalOnMissingBean(name = "i18nHealthIndicator")
+    public MessageSourceHealthIndicator i18nHealthIndicator(ConfigBackendMessageSource messageSource) {
+        return new MessageSourceHealthIndicator(messageSource);
+    }
+}
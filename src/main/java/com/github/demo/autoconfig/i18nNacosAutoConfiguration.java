@@ -3,12 +3,17 @@ package com.github.demo.autoconfig;
 
 import com.alibaba.cloud.nacos.NacosConfigProperties;
 import com.github.demo.context.NacosMessageSourceProperties;
+import com.github.demo.support.MessageSourceMetrics;
+import com.github.demo.support.MicrometerMessageSourceMetrics;
 import com.github.demo.support.NacosConfigMessageSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfigureOrder;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -19,6 +24,8 @@ import org.springframework.core.Ordered;
 @ConditionalOnClass(NacosConfigProperties.class)
 public class i18nNacosAutoConfiguration {
 
+    public static final String METRICS_BEAN_NAME = "nacosMessageSourceMetrics";
+
     @Bean
     @ConfigurationProperties(prefix = "i18n.nacos")
     public NacosMessageSourceProperties nacosMessageSourceProperties() {
@@ -27,8 +34,28 @@ public class i18nNacosAutoConfiguration {
 
     @Bean
     @ConditionalOnProperty(name = "spring.cloud.nacos.config.enabled", matchIfMissing = true)
-    public MessageSource messageSource(NacosMessageSourceProperties i18nProperties, NacosConfigProperties properties) {
-        return new NacosConfigMessageSource(i18nProperties, properties);
+    @ConditionalOnMissingBean(name = "messageSource")
+    public NacosConfigMessageSource messageSource(NacosMessageSourceProperties i18nProperties, NacosConfigProperties properties,
+                                       @Qualifier(METRICS_BEAN_NAME) ObjectProvider<MessageSourceMetrics> metrics) {
+        NacosConfigMessageSource messageSource = new NacosConfigMessageSource(i18nProperties, properties);
+        metrics.ifAvailable(messageSource::setMetrics);
+        return messageSource;
+    }
+
+    /**
+     * Same property conditions as the message source, which looks its metrics up by name.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(name = "i18n.file.enabled", havingValue = "false", matchIfMissing = true)
+    static class NacosMessageSourceMetricsConfiguration {
+
+        @Bean(name = METRICS_BEAN_NAME)
+        @ConditionalOnProperty(name = "spring.cloud.nacos.config.enabled", matchIfMissing = true)
+        public MessageSourceMetrics nacosMessageSourceMetrics(ObjectProvider<MeterRegistry> registry) {
+            MeterRegistry meterRegistry = registry.getIfUnique();
+            return meterRegistry != null ? new MicrometerMessageSourceMetrics(meterRegistry, "nacos") : MessageSourceMetrics.NOOP;
+        }
     }
 
 }
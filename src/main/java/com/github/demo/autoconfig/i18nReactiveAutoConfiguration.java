@@ -0,0 +1,25 @@
+package com.github.demo.autoconfig;
+
+import com.github.demo.support.ConfigBackendMessageSource;
+import com.github.demo.support.ReactiveMessageSource;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.DispatcherHandler;
+import reactor.core.publisher.Mono;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass({Mono.class, DispatcherHandler.class})
+@AutoConfigureAfter({i18nConsulAutoConfiguration.class, i18nNacosAutoConfiguration.class, i18nFileAutoConfiguration.class})
+public class i18nReactiveAutoConfiguration {
+
+    @Bean
+    @ConditionalOnBean(ConfigBackendMessageSource.class)
+    @ConditionalOnMissingBean
+    public ReactiveMessageSource reactiveMessageSource(ConfigBackendMessageSource messageSource) {
+        return new ReactiveMessageSource(messageSource);
+    }
+}
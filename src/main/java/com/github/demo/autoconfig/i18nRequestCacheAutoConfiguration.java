@@ -0,0 +1,47 @@
+package com.github.demo.autoconfig;
+
+import com.github.demo.support.ConfigBackendMessageSource;
+import com.github.demo.web.LocaleChainFilter;
+import com.github.demo.web.LocaleChainWebFilter;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.WebFilter;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "i18n.request-cache.enabled", havingValue = "true")
+@AutoConfigureAfter({i18nConsulAutoConfiguration.class, i18nNacosAutoConfiguration.class, i18nFileAutoConfiguration.class})
+public class i18nRequestCacheAutoConfiguration {
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(OncePerRequestFilter.class)
+    static class ServletConfiguration {
+
+        @Bean
+        @ConditionalOnBean(ConfigBackendMessageSource.class)
+        @ConditionalOnMissingBean
+        public LocaleChainFilter localeChainFilter() {
+            return new LocaleChainFilter();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(WebFilter.class)
+    static class ReactiveConfiguration {
+
+        @Bean
+        @ConditionalOnBean(ConfigBackendMessageSource.class)
+        @ConditionalOnMissingBean
+        public LocaleChainWebFilter localeChainWebFilter(ConfigBackendMessageSource messageSource) {
+            return new LocaleChainWebFilter(messageSource);
+        }
+    }
+}
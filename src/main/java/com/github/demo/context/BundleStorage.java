@@ -0,0 +1,13 @@
+package com.github.demo.context;
+
+public enum BundleStorage {
+    /**
+     * Messages are kept as {@code String}s in an on-heap hash table.
+     */
+    HEAP,
+    /**
+     * Messages are compiled into a binary hash index with a UTF-8 string pool in a direct buffer,
+     * decoded on lookup and cached for hot codes.
+     */
+    OFF_HEAP
+}
@@ -1,67 +1,65 @@
 package com.github.demo.context;
 
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+public class ConsulMessageSourceProperties extends MessageSourceProperties {
 
-public class ConsulMessageSourceProperties {
+    private WatchMode watchMode = WatchMode.KEY;
 
-    private String basename = "messages";
+    private int watchConcurrency = 64;
 
-    private long delayMs = 60000;
+    private boolean watchVirtualThreads = true;
 
-    private Charset encoding = StandardCharsets.UTF_8;
+    private long watchBackoffMs = 1000;
 
-    private boolean fallbackToSystemLocale = true;
+    private long watchMaxBackoffMs = 60000;
 
-    private boolean alwaysUseMessageFormat = false;
-
-    private boolean useCodeAsDefaultMessage = false;
-
-    public String getBasename() {
-        return basename;
-    }
-
-    public void setBasename(String basename) {
-        this.basename = basename;
+    public WatchMode getWatchMode() {
+        return watchMode;
     }
 
-    public long getDelayMs() {
-        return delayMs;
+    public void setWatchMode(WatchMode watchMode) {
+        this.watchMode = watchMode;
     }
 
-    public void setDelayMs(long delayMs) {
-        this.delayMs = delayMs;
+    public int getWatchConcurrency() {
+        return watchConcurrency;
     }
 
-    public Charset getEncoding() {
-        return encoding;
+    public void setWatchConcurrency(int watchConcurrency) {
+        this.watchConcurrency = watchConcurrency;
     }
 
-    public void setEncoding(Charset encoding) {
-        this.encoding = encoding;
+    public boolean isWatchVirtualThreads() {
+        return watchVirtualThreads;
     }
 
-    public boolean isFallbackToSystemLocale() {
-        return fallbackToSystemLocale;
+    public void setWatchVirtualThreads(boolean watchVirtualThreads) {
+        this.watchVirtualThreads = watchVirtualThreads;
     }
 
-    public void setFallbackToSystemLocale(boolean fallbackToSystemLocale) {
-        this.fallbackToSystemLocale = fallbackToSystemLocale;
+    public long getWatchBackoffMs() {
+        return watchBackoffMs;
     }
 
-    public boolean isAlwaysUseMessageFormat() {
-        return alwaysUseMessageFormat;
+    public void setWatchBackoffMs(long watchBackoffMs) {
+        this.watchBackoffMs = watchBackoffMs;
     }
 
-    public void setAlwaysUseMessageFormat(boolean alwaysUseMessageFormat) {
-        this.alwaysUseMessageFormat = alwaysUseMessageFormat;
+    public long getWatchMaxBackoffMs() {
+        return watchMaxBackoffMs;
     }
 
-    public boolean isUseCodeAsDefaultMessage() {
-        return useCodeAsDefaultMessage;
+    public void setWatchMaxBackoffMs(long watchMaxBackoffMs) {
+        this.watchMaxBackoffMs = watchMaxBackoffMs;
     }
 
-    public void setUseCodeAsDefaultMessage(boolean useCodeAsDefaultMessage) {
-        this.useCodeAsDefaultMessage = useCodeAsDefaultMessage;
+    public enum WatchMode {
+        /**
+         * One blocking query per cached bundle key, each on its own watch.
+         */
+        KEY,
+        /**
+         * One recursive blocking query on the basename prefix for all bundles.
+         */
+        PREFIX
     }
 }
@@ -0,0 +1,30 @@
+package com.github.demo.context;
+
+public class FileMessageSourceProperties extends MessageSourceProperties {
+
+    /**
+     * Directory of the {@code basename_locale.properties} files.
+     */
+    private String directory = "i18n";
+
+    /**
+     * Reload the files as soon as they change.
+     */
+    private boolean watch = true;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public void setWatch(boolean watch) {
+        this.watch = watch;
+    }
+}
@@ -0,0 +1,274 @@
+package com.github.demo.context;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Settings shared by every message source backend.
+ */
+public class MessageSourceProperties {
+
+    private String basename = "messages";
+
+    /** Basenames looked up in order, the first one that has the message wins; overrides {@code basename}. */
+    private List<String> basenames = new ArrayList<>();
+
+    private long delayMs = 60000;
+
+    private Charset encoding = StandardCharsets.UTF_8;
+
+    private boolean fallbackToSystemLocale = true;
+
+    private boolean alwaysUseMessageFormat = false;
+
+    private boolean useCodeAsDefaultMessage = false;
+
+    private boolean asyncLoading = false;
+
+    private int loaderPoolSize = 2;
+
+    private boolean preload = false;
+
+    private List<Locale> preloadLocales = new ArrayList<>();
+
+    private int preloadConcurrency = 4;
+
+    private long preloadTimeoutMs = 30000;
+
+    private boolean flattenedLookup = false;
+
+    private boolean precompiledFormat = false;
+
+    private String snapshotDir;
+
+    private String sharedCacheDir;
+
+    private long sharedCacheTtlMs = 60000;
+
+    private BundleStorage storage = BundleStorage.HEAP;
+
+    private List<Locale> supportedLocales = new ArrayList<>();
+
+    private int cacheMaxLocales = 256;
+
+    private int cacheMaxBundles = 512;
+
+    private long cacheMaxMessages = 0;
+
+    private int cacheMaxFormats = 0;
+
+    private long missingBackoffMs = 1000;
+
+    private double missingBackoffJitter = 0.2;
+
+    public String getBasename() {
+        return basename;
+    }
+
+    public void setBasename(String basename) {
+        this.basename = basename;
+    }
+
+    public List<String> getBasenames() {
+        return basenames;
+    }
+
+    public void setBasenames(List<String> basenames) {
+        this.basenames = basenames;
+    }
+
+    public long getDelayMs() {
+        return delayMs;
+    }
+
+    public void setDelayMs(long delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    public Charset getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(Charset encoding) {
+        this.encoding = encoding;
+    }
+
+    public boolean isFallbackToSystemLocale() {
+        return fallbackToSystemLocale;
+    }
+
+    public void setFallbackToSystemLocale(boolean fallbackToSystemLocale) {
+        this.fallbackToSystemLocale = fallbackToSystemLocale;
+    }
+
+    public boolean isAlwaysUseMessageFormat() {
+        return alwaysUseMessageFormat;
+    }
+
+    public void setAlwaysUseMessageFormat(boolean alwaysUseMessageFormat) {
+        this.alwaysUseMessageFormat = alwaysUseMessageFormat;
+    }
+
+    public boolean isUseCodeAsDefaultMessage() {
+        return useCodeAsDefaultMessage;
+    }
+
+    public void setUseCodeAsDefaultMessage(boolean useCodeAsDefaultMessage) {
+        this.useCodeAsDefaultMessage = useCodeAsDefaultMessage;
+    }
+
+    public boolean isAsyncLoading() {
+        return asyncLoading;
+    }
+
+    public void setAsyncLoading(boolean asyncLoading) {
+        this.asyncLoading = asyncLoading;
+    }
+
+    public int getLoaderPoolSize() {
+        return loaderPoolSize;
+    }
+
+    public void setLoaderPoolSize(int loaderPoolSize) {
+        this.loaderPoolSize = loaderPoolSize;
+    }
+
+    public boolean isPreload() {
+        return preload;
+    }
+
+    public void setPreload(boolean preload) {
+        this.preload = preload;
+    }
+
+    public List<Locale> getPreloadLocales() {
+        return preloadLocales;
+    }
+
+    public void setPreloadLocales(List<Locale> preloadLocales) {
+        this.preloadLocales = preloadLocales;
+    }
+
+    public int getPreloadConcurrency() {
+        return preloadConcurrency;
+    }
+
+    public void setPreloadConcurrency(int preloadConcurrency) {
+        this.preloadConcurrency = preloadConcurrency;
+    }
+
+    public long getPreloadTimeoutMs() {
+        return preloadTimeoutMs;
+    }
+
+    public void setPreloadTimeoutMs(long preloadTimeoutMs) {
+        this.preloadTimeoutMs = preloadTimeoutMs;
+    }
+
+    public boolean isFlattenedLookup() {
+        return flattenedLookup;
+    }
+
+    public void setFlattenedLookup(boolean flattenedLookup) {
+        this.flattenedLookup = flattenedLookup;
+    }
+
+    public boolean isPrecompiledFormat() {
+        return precompiledFormat;
+    }
+
+    public void setPrecompiledFormat(boolean precompiledFormat) {
+        this.precompiledFormat = precompiledFormat;
+    }
+
+    public String getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    public void setSnapshotDir(String snapshotDir) {
+        this.snapshotDir = snapshotDir;
+    }
+
+    public String getSharedCacheDir() {
+        return sharedCacheDir;
+    }
+
+    public void setSharedCacheDir(String sharedCacheDir) {
+        this.sharedCacheDir = sharedCacheDir;
+    }
+
+    public long getSharedCacheTtlMs() {
+        return sharedCacheTtlMs;
+    }
+
+    public void setSharedCacheTtlMs(long sharedCacheTtlMs) {
+        this.sharedCacheTtlMs = sharedCacheTtlMs;
+    }
+
+    public BundleStorage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(BundleStorage storage) {
+        this.storage = storage;
+    }
+
+    public List<Locale> getSupportedLocales() {
+        return supportedLocales;
+    }
+
+    public void setSupportedLocales(List<Locale> supportedLocales) {
+        this.supportedLocales = supportedLocales;
+    }
+
+    public int getCacheMaxLocales() {
+        return cacheMaxLocales;
+    }
+
+    public void setCacheMaxLocales(int cacheMaxLocales) {
+        this.cacheMaxLocales = cacheMaxLocales;
+    }
+
+    public int getCacheMaxBundles() {
+        return cacheMaxBundles;
+    }
+
+    public void setCacheMaxBundles(int cacheMaxBundles) {
+        this.cacheMaxBundles = cacheMaxBundles;
+    }
+
+    public long getCacheMaxMessages() {
+        return cacheMaxMessages;
+    }
+
+    public void setCacheMaxMessages(long cacheMaxMessages) {
+        this.cacheMaxMessages = cacheMaxMessages;
+    }
+
+    public int getCacheMaxFormats() {
+        return cacheMaxFormats;
+    }
+
+    public void setCacheMaxFormats(int cacheMaxFormats) {
+        this.cacheMaxFormats = cacheMaxFormats;
+    }
+
+    public long getMissingBackoffMs() {
+        return missingBackoffMs;
+    }
+
+    public void setMissingBackoffMs(long missingBackoffMs) {
+        this.missingBackoffMs = missingBackoffMs;
+    }
+
+    public double getMissingBackoffJitter() {
+        return missingBackoffJitter;
+    }
+
+    public void setMissingBackoffJitter(double missingBackoffJitter) {
+        this.missingBackoffJitter = missingBackoffJitter;
+    }
+}
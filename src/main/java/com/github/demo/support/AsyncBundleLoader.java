@@ -0,0 +1,111 @@
+package com.github.demo.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ExecutorConfigurationSupport;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Single-flight background loader for remote message bundles.
+ * Concurrent misses for the same filename share one in-flight future.
+ */
+class AsyncBundleLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBundleLoader.class);
+
+    private final ConcurrentMap<String, CompletableFuture<Void>> inflight = new ConcurrentHashMap<>();
+
+    private final Executor executor;
+
+    private final Consumer<String> loader;
+
+    private volatile boolean shutdown = false;
+
+    AsyncBundleLoader(Executor executor, Consumer<String> loader) {
+        this.executor = executor;
+        this.loader = loader;
+    }
+
+    CompletableFuture<Void> load(String filename) {
+        return load(filename, this.executor);
+    }
+
+    /**
+     * Load on the given executor, unless the bundle is already loading.
+     */
+    CompletableFuture<Void> load(String filename, Executor executor) {
+        if (this.shutdown) {
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new IllegalStateException("loader shut down"));
+            return rejected;
+        }
+        CompletableFuture<Void> future = this.inflight.get(filename);
+        if (future != null) {
+            return future;
+        }
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        future = this.inflight.putIfAbsent(filename, created);
+        if (future != null) {
+            return future;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    this.loader.accept(filename);
+                    created.complete(null);
+                } catch (Throwable ex) {
+                    logger.warn("[AsyncBundleLoader] load {} failed", filename, ex);
+                    created.completeExceptionally(ex);
+                } finally {
+                    this.inflight.remove(filename, created);
+                }
+            });
+        } catch (RuntimeException ex) {
+            this.inflight.remove(filename, created);
+            created.completeExceptionally(ex);
+        }
+        return created;
+    }
+
+    boolean isLoading(String filename) {
+        return this.inflight.containsKey(filename);
+    }
+
+    /**
+     * @return the load of the bundle in flight, {@code null} if none
+     */
+    @Nullable
+    CompletableFuture<Void> getLoading(String filename) {
+        return this.inflight.get(filename);
+    }
+
+    /**
+     * Stop loading: pending loads are dropped and later ones fail at once.
+     */
+    void shutdown() {
+        this.shutdown = true;
+        if (this.executor instanceof ExecutorConfigurationSupport) {
+            ((ExecutorConfigurationSupport) this.executor).shutdown();
+        } else if (this.executor instanceof ExecutorService) {
+            ((ExecutorService) this.executor).shutdownNow();
+        }
+    }
+
+    static ThreadPoolTaskExecutor createExecutor(String threadNamePrefix, int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,285 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Concurrent cache bounded by entry count and/or total weight, evicting with the CLOCK (second chance)
+ * approximation of LRU. Reads never lock: a hit only sets the reference bit of the entry. Writers that
+ * exceed a bound sweep the clock hand under a lock, clearing reference bits and evicting the first
+ * entry that has not been read since the previous sweep. An entry heavier than the whole weight budget is
+ * kept outside of it: evicting it right away would only make every read load it again.
+ */
+final class BoundedCache<K, V> {
+
+    private final ConcurrentHashMap<K, Node<V>> map = new ConcurrentHashMap<>();
+
+    /** Maximum number of entries, {@code <= 0} for no limit. */
+    private final long maximumSize;
+
+    /** Maximum total weight, {@code <= 0} for no limit. */
+    private final long maximumWeight;
+
+    private final ToIntFunction<V> weigher;
+
+    /** Notified of the evicted entries, {@code null} if none. */
+    @Nullable
+    private final BiConsumer<K, V> evictionListener;
+
+    private final AtomicLong weightedSize = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /** Clock hand, guarded by the eviction lock. */
+    private Iterator<Map.Entry<K, Node<V>>> hand;
+
+    BoundedCache(long maximumSize) {
+        this(maximumSize, 0, value -> 1);
+    }
+
+    BoundedCache(long maximumSize, long maximumWeight, ToIntFunction<V> weigher) {
+        this(maximumSize, maximumWeight, weigher, null);
+    }
+
+    /**
+     * @param evictionListener called with the entries evicted to honor a bound, not with the removed or replaced ones
+     */
+    BoundedCache(long maximumSize, long maximumWeight, ToIntFunction<V> weigher,
+                 @Nullable BiConsumer<K, V> evictionListener) {
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Whether a value is heavier than the whole weight budget, and therefore kept outside of it.
+     */
+    boolean isOverweight(V value) {
+        return this.maximumWeight > 0 && this.weigher.applyAsInt(value) > this.maximumWeight;
+    }
+
+    private int weigh(V value) {
+        int weight = Math.max(0, this.weigher.applyAsInt(value));
+        return this.maximumWeight > 0 && weight > this.maximumWeight ? 0 : weight;
+    }
+
+    private static final class Node<V> {
+
+        final V value;
+
+        final int weight;
+
+        volatile boolean referenced = true;
+
+        Node(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Return the cached value, recording a hit or a miss.
+     */
+    @Nullable
+    V get(K key) {
+        Node<V> node = this.map.get(key);
+        if (node == null) {
+            this.missCount.increment();
+            return null;
+        }
+        this.hitCount.increment();
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node.value;
+    }
+
+    /**
+     * Return the cached value without touching the statistics or the eviction order.
+     */
+    @Nullable
+    V peek(K key) {
+        Node<V> node = this.map.get(key);
+        return node != null ? node.value : null;
+    }
+
+    boolean containsKey(K key) {
+        return this.map.containsKey(key);
+    }
+
+    @Nullable
+    V put(K key, V value) {
+        Node<V> node = new Node<>(value, weigh(value));
+        Node<V> old = this.map.put(key, node);
+        this.weightedSize.addAndGet(old != null ? node.weight - old.weight : node.weight);
+        evictIfNeeded();
+        return old != null ? old.value : null;
+    }
+
+    /**
+     * @return the value already cached, or {@code null} if the given value has been cached
+     */
+    @Nullable
+    V putIfAbsent(K key, V value) {
+        Node<V> node = new Node<>(value, weigh(value));
+        Node<V> existing = this.map.putIfAbsent(key, node);
+        if (existing != null) {
+            return existing.value;
+        }
+        this.weightedSize.addAndGet(node.weight);
+        evictIfNeeded();
+        return null;
+    }
+
+    /**
+     * Atomically replace the value of the key, removing the entry when the function returns {@code null}.
+     */
+    @Nullable
+    V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        long[] delta = new long[1];
+        Node<V> node = this.map.compute(key, (k, old) -> {
+            V value = remappingFunction.apply(k, old != null ? old.value : null);
+            Node<V> updated = value != null ? new Node<>(value, weigh(value)) : null;
+            delta[0] = (updated != null ? updated.weight : 0) - (old != null ? old.weight : 0);
+            return updated;
+        });
+        this.weightedSize.addAndGet(delta[0]);
+        evictIfNeeded();
+        return node != null ? node.value : null;
+    }
+
+    @Nullable
+    V remove(K key) {
+        Node<V> old = this.map.remove(key);
+        if (old == null) {
+            return null;
+        }
+        this.weightedSize.addAndGet(-old.weight);
+        return old.value;
+    }
+
+    void clear() {
+        for (K key : this.map.keySet()) {
+            remove(key);
+        }
+    }
+
+    int size() {
+        return this.map.size();
+    }
+
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        this.map.forEach((key, node) -> action.accept(key, node.value));
+    }
+
+    CacheStats stats() {
+        return new CacheStats(this.hitCount.sum(), this.missCount.sum(), this.evictionCount.sum(),
+                this.map.size(), this.weightedSize.get());
+    }
+
+    /**
+     * Live, read-only {@link Map} view of the cache. Reads through the view do not count as hits.
+     */
+    Map<K, V> asMap() {
+        return new AbstractMap<K, V>() {
+            @Override
+            public V get(Object key) {
+                Node<V> node = map.get(key);
+                return node != null ? node.value : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return map.containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public Set<Entry<K, V>> entrySet() {
+                return new AbstractSet<Entry<K, V>>() {
+                    @Override
+                    public Iterator<Entry<K, V>> iterator() {
+                        Iterator<Entry<K, Node<V>>> nodes = map.entrySet().iterator();
+                        return new Iterator<Entry<K, V>>() {
+                            @Override
+                            public boolean hasNext() {
+                                return nodes.hasNext();
+                            }
+
+                            @Override
+                            public Entry<K, V> next() {
+                                Entry<K, Node<V>> entry = nodes.next();
+                                return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return map.size();
+                    }
+                };
+            }
+        };
+    }
+
+    private boolean isOverflowing() {
+        return (this.maximumSize > 0 && this.map.size() > this.maximumSize)
+                || (this.maximumWeight > 0 && this.weightedSize.get() > this.maximumWeight);
+    }
+
+    private void evictIfNeeded() {
+        if (!isOverflowing()) {
+            return;
+        }
+        this.evictionLock.lock();
+        try {
+            // Entries read again during the sweep could keep it going, so give up second chances after two turns.
+            long secondChances = 2L * this.map.size();
+            while (isOverflowing()) {
+                if (this.hand == null || !this.hand.hasNext()) {
+                    this.hand = this.map.entrySet().iterator();
+                    if (!this.hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<K, Node<V>> entry = this.hand.next();
+                Node<V> node = entry.getValue();
+                if (node.referenced && secondChances-- > 0) {
+                    node.referenced = false;
+                } else if (this.map.remove(entry.getKey(), node)) {
+                    this.weightedSize.addAndGet(-node.weight);
+                    this.evictionCount.increment();
+                    if (this.evictionListener != null) {
+                        this.evictionListener.accept(entry.getKey(), node.value);
+                    }
+                }
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+}
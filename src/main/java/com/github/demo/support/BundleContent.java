@@ -0,0 +1,56 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Raw content of a bundle as stored by a {@link ConfigBackend}.
+ */
+public final class BundleContent {
+
+    private final String key;
+
+    @Nullable
+    private final String content;
+
+    @Nullable
+    private final String version;
+
+    /**
+     * @param version version of the content on the backend, such as the Consul modify index or the
+     *                Nacos MD5, used to skip identical reloads and as ETag
+     */
+    public BundleContent(String key, @Nullable String content, @Nullable String version) {
+        this.key = key;
+        this.content = content;
+        this.version = version;
+    }
+
+    /**
+     * Order versions that are increasing numbers, such as indexes or modification times.
+     * @return whether both versions are numbers and the first one is lower
+     */
+    static boolean isLowerNumber(@Nullable String version, @Nullable String other) {
+        if (version == null || other == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(version) < Long.parseLong(other);
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Nullable
+    public String getContent() {
+        return content;
+    }
+
+    @Nullable
+    public String getVersion() {
+        return version;
+    }
+}
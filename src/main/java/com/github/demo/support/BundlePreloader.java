@@ -0,0 +1,103 @@
+package com.github.demo.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Fetches a set of bundles in parallel with a bounded number of threads,
+ * logging the latency of every fetch and of the whole preload.
+ */
+class BundlePreloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BundlePreloader.class);
+
+    private final String threadNamePrefix;
+
+    private final int concurrency;
+
+    private final long timeoutMs;
+
+    BundlePreloader(String threadNamePrefix, int concurrency, long timeoutMs) {
+        this.threadNamePrefix = threadNamePrefix;
+        this.concurrency = Math.max(1, concurrency);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Fetch the bundles, waiting for them up to the timeout. Bundles still pending then keep loading in
+     * background, on daemon threads.
+     * @param loader starts the fetch of a bundle on the given executor, or joins the fetch already in flight
+     * @param whenDone called once every fetch has run, with {@code false} if the preload was interrupted
+     * @return {@code true} if every bundle was fetched before the timeout
+     */
+    boolean preload(Collection<String> filenames, BiFunction<String, Executor, CompletableFuture<?>> loader,
+                    Consumer<Boolean> whenDone) {
+        if (filenames.isEmpty()) {
+            whenDone.accept(true);
+            return true;
+        }
+        long start = System.nanoTime();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(this.threadNamePrefix);
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.concurrency, filenames.size()), threadFactory);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(filenames.size());
+        for (String filename : filenames) {
+            long fetchStart = System.nanoTime();
+            futures.add(loader.apply(filename, executor).handle((result, failure) -> {
+                if (failure == null) {
+                    logger.info("[BundlePreloader] fetched {} in {} ms", filename, elapsedMs(fetchStart));
+                } else {
+                    logger.warn("[BundlePreloader] fetch {} failed after {} ms: {}", filename, elapsedMs(fetchStart),
+                            failure.toString());
+                }
+                return null;
+            }));
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        try {
+            all.get(this.timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            long pending = futures.stream().filter(future -> !future.isDone()).count();
+            logger.warn("[BundlePreloader] preload not finished within {} ms, {} of {} bundles still loading in background",
+                    this.timeoutMs, pending, filenames.size());
+            all.whenComplete((result, failure) -> {
+                executor.shutdown();
+                logger.info("[BundlePreloader] preloaded {} bundles in {} ms", filenames.size(), elapsedMs(start));
+                whenDone.accept(true);
+            });
+            return false;
+        } catch (InterruptedException | ExecutionException ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            } else {
+                logger.warn("[BundlePreloader] preload failed", ex);
+            }
+            // Queued fetches still run: requests may be waiting for them through the single-flight loader.
+            executor.shutdown();
+            whenDone.accept(false);
+            return false;
+        }
+        executor.shutdown();
+        logger.info("[BundlePreloader] preloaded {} bundles in {} ms", filenames.size(), elapsedMs(start));
+        whenDone.accept(true);
+        return true;
+    }
+
+    static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
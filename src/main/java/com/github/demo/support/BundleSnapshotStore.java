@@ -0,0 +1,227 @@
+package com.github.demo.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local snapshots of successfully loaded bundles, one compact binary file per bundle:
+ * <pre>
+ * int magic, int format, utf filename, utf version, int count, count * (utf8 code, utf8 message)
+ * </pre>
+ * where every utf8 string is an int byte length followed by the bytes. Files are written in the background
+ * and replaced atomically, and read back through a memory mapping.
+ */
+class BundleSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BundleSnapshotStore.class);
+
+    private static final int MAGIC = 0x6931386E;
+
+    private static final int FORMAT = 1;
+
+    private static final String SUFFIX = ".bundle";
+
+    private final Path directory;
+
+    private final ExecutorService writer;
+
+    BundleSnapshotStore(String directory, String threadNamePrefix) {
+        this.directory = Paths.get(directory);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        this.writer = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    static final class Snapshot {
+
+        final String filename;
+
+        final String version;
+
+        final Properties properties;
+
+        Snapshot(String filename, String version, Properties properties) {
+            this.filename = filename;
+            this.version = version;
+            this.properties = properties;
+        }
+    }
+
+    void save(String filename, @Nullable String version, LocalPropertiesHolder holder) {
+        try {
+            this.writer.execute(() -> {
+                try {
+                    write(filename, version != null ? version : "", holder);
+                } catch (IOException ex) {
+                    logger.warn("[BundleSnapshotStore] write snapshot of {} failed", filename, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            logger.debug("[BundleSnapshotStore] closed, snapshot of {} not written", filename);
+        }
+    }
+
+    /**
+     * Delete the snapshot of a bundle that no longer exists, after the writes already queued for it.
+     */
+    void delete(String filename) {
+        try {
+            this.writer.execute(() -> {
+                try {
+                    Files.deleteIfExists(this.directory.resolve(encode(filename) + SUFFIX));
+                } catch (IOException ex) {
+                    logger.warn("[BundleSnapshotStore] delete snapshot of {} failed", filename, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            logger.debug("[BundleSnapshotStore] closed, snapshot of {} not deleted", filename);
+        }
+    }
+
+    /**
+     * Finish the pending writes, within a few seconds, and release the writer thread.
+     */
+    void close() {
+        this.writer.shutdown();
+        try {
+            if (!this.writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("[BundleSnapshotStore] pending snapshots not written within 5 s");
+                this.writer.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            this.writer.shutdownNow();
+        }
+    }
+
+    private void write(String filename, String version, LocalPropertiesHolder holder) throws IOException {
+        Files.createDirectories(this.directory);
+        Path target = this.directory.resolve(encode(filename) + SUFFIX);
+        Path temp = Files.createTempFile(this.directory, "snapshot", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            writeString(out, filename);
+            writeString(out, version);
+            out.writeInt(holder.size());
+            IOException[] failure = new IOException[1];
+            holder.forEach((code, message) -> {
+                try {
+                    writeString(out, code);
+                    writeString(out, message);
+                } catch (IOException ex) {
+                    failure[0] = ex;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.debug("[BundleSnapshotStore] wrote snapshot of {} ({})", filename, version);
+    }
+
+    /**
+     * Read every snapshot whose bundle name matches {@code basename}; unreadable files are skipped.
+     */
+    Map<String, Snapshot> loadAll(String basename) {
+        Map<String, Snapshot> result = new LinkedHashMap<>();
+        if (!Files.isDirectory(this.directory)) {
+            return result;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String filename = decode(name.substring(0, name.length() - SUFFIX.length()));
+                if (!filename.equals(basename) && !filename.startsWith(basename + "_")) {
+                    continue;
+                }
+                try {
+                    Snapshot snapshot = read(file);
+                    if (snapshot != null && snapshot.filename.equals(filename)) {
+                        result.put(filename, snapshot);
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    logger.warn("[BundleSnapshotStore] skip unreadable snapshot {}", file, ex);
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("[BundleSnapshotStore] list snapshots in {} failed", this.directory, ex);
+        }
+        return result;
+    }
+
+    @Nullable
+    private static Snapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                return null;
+            }
+            String filename = readString(buffer);
+            String version = readString(buffer);
+            int count = buffer.getInt();
+            Properties properties = new Properties();
+            for (int i = 0; i < count; i++) {
+                properties.setProperty(readString(buffer), readString(buffer));
+            }
+            return new Snapshot(filename, version, properties);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String encode(String filename) {
+        try {
+            return URLEncoder.encode(filename, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String decode(String name) {
+        try {
+            return URLDecoder.decode(name, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.demo.support;
+
+/**
+ * Immutable statistics snapshot of one of the bounded caches of a message source.
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long size;
+
+    private final long weightedSize;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, long size, long weightedSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weightedSize = weightedSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Total weight of the entries, such as the number of messages of the cached bundles.
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                + ", size=" + size + ", weightedSize=" + weightedSize + '}';
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link MessageStore} compiled into a single direct {@link ByteBuffer}, outside of the Java heap:
+ * <pre>
+ * slots: capacity * (int hash, int entry offset or -1)
+ * pool:  count * (int code length, code utf8, int message length, message utf8)
+ * </pre>
+ * Slots are probed linearly. Messages are decoded on lookup and the decoded strings of hot codes are kept in a
+ * small lock-free, direct-mapped cache on the heap.
+ */
+final class CompactMessageStore implements MessageStore {
+
+    private static final int SLOT_SIZE = 8;
+
+    private final ByteBuffer buffer;
+
+    private final int capacity;
+
+    private final int poolStart;
+
+    private final int size;
+
+    private final AtomicReferenceArray<String[]> hotEntries;
+
+    private CompactMessageStore(ByteBuffer buffer, int capacity, int size, int hotEntries) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.poolStart = capacity * SLOT_SIZE;
+        this.size = size;
+        this.hotEntries = new AtomicReferenceArray<>(Integer.highestOneBit(Math.max(1, hotEntries)));
+    }
+
+    static CompactMessageStore copyOf(Map<String, String> messages, int hotEntries) {
+        int capacity = Integer.highestOneBit(Math.max(2, messages.size()) * 2 - 1) << 1;
+        byte[][] codes = new byte[messages.size()][];
+        byte[][] values = new byte[messages.size()][];
+        int[] hashes = new int[messages.size()];
+        int poolSize = 0;
+        int i = 0;
+        for (Map.Entry<String, String> entry : messages.entrySet()) {
+            codes[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            values[i] = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            hashes[i] = spread(entry.getKey().hashCode());
+            poolSize += 8 + codes[i].length + values[i].length;
+            i++;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(capacity * SLOT_SIZE + poolSize);
+        for (int slot = 0; slot < capacity; slot++) {
+            buffer.putInt(slot * SLOT_SIZE + 4, -1);
+        }
+        int offset = capacity * SLOT_SIZE;
+        int mask = capacity - 1;
+        for (int j = 0; j < codes.length; j++) {
+            int slot = hashes[j] & mask;
+            while (buffer.getInt(slot * SLOT_SIZE + 4) != -1) {
+                slot = (slot + 1) & mask;
+            }
+            buffer.putInt(slot * SLOT_SIZE, hashes[j]);
+            buffer.putInt(slot * SLOT_SIZE + 4, offset);
+            buffer.position(offset);
+            buffer.putInt(codes[j].length).put(codes[j]).putInt(values[j].length).put(values[j]);
+            offset = buffer.position();
+        }
+        buffer.clear();
+        return new CompactMessageStore(buffer.asReadOnlyBuffer(), capacity, messages.size(), hotEntries);
+    }
+
+    @Nullable
+    @Override
+    public String get(String code) {
+        int hash = spread(code.hashCode());
+        int hotIndex = hash & (this.hotEntries.length() - 1);
+        String[] hot = this.hotEntries.get(hotIndex);
+        if (hot != null && hot[0].equals(code)) {
+            return hot[1];
+        }
+        int mask = this.capacity - 1;
+        int slot = hash & mask;
+        int offset;
+        while ((offset = this.buffer.getInt(slot * SLOT_SIZE + 4)) != -1) {
+            if (this.buffer.getInt(slot * SLOT_SIZE) == hash && codeEquals(offset, code)) {
+                int codeLength = this.buffer.getInt(offset);
+                String message = decode(offset + 4 + codeLength);
+                this.hotEntries.set(hotIndex, new String[]{code, message});
+                return message;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+        int offset = this.poolStart;
+        for (int i = 0; i < this.size; i++) {
+            String code = decode(offset);
+            offset += 4 + this.buffer.getInt(offset);
+            action.accept(code, decode(offset));
+            offset += 4 + this.buffer.getInt(offset);
+        }
+    }
+
+    /**
+     * Only the decoded hot entries live on the heap.
+     */
+    @Override
+    public long estimatedHeapBytes() {
+        long total = 64 + 4L * this.hotEntries.length();
+        for (int i = 0; i < this.hotEntries.length(); i++) {
+            String[] hot = this.hotEntries.get(i);
+            if (hot != null) {
+                total += 24 + 2 * 56 + 2L * (hot[0].length() + hot[1].length());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Off-heap bytes used by this store.
+     */
+    int capacityInBytes() {
+        return this.buffer.capacity();
+    }
+
+    private boolean codeEquals(int offset, String code) {
+        int length = this.buffer.getInt(offset);
+        int start = offset + 4;
+        // Compare ASCII codes in place, encode only when the code has other characters.
+        if (length == code.length()) {
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                char ch = code.charAt(i);
+                if (ch >= 0x80) {
+                    ascii = false;
+                    break;
+                }
+                if (this.buffer.get(start + i) != (byte) ch) {
+                    return false;
+                }
+            }
+            if (ascii) {
+                return true;
+            }
+        }
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (this.buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int offset) {
+        int length = this.buffer.getInt(offset);
+        byte[] bytes = new byte[length];
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(offset + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
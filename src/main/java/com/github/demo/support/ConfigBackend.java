@@ -0,0 +1,104 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+
+/**
+ * Storage of the message bundles, one properties document per key ({@code messages}, {@code messages_zh_CN}...).
+ * {@link ConfigBackendMessageSource} does all the caching and resolution; a backend only fetches, lists and
+ * watches keys.
+ */
+public interface ConfigBackend {
+
+    /**
+     * Short name of the backend ({@code consul}, {@code nacos}...), used in logs and thread names.
+     */
+    String getName();
+
+    /**
+     * Identifies the server and the set of bundles behind the keys, such as the Nacos namespace and group,
+     * so that co-located services only share the bundles they would fetch themselves. Empty if the name
+     * alone identifies them.
+     */
+    default String getScope() {
+        return "";
+    }
+
+    /**
+     * Fetch a bundle.
+     * @return the bundle, or {@code null} if there is no such key
+     * @throws RuntimeException if the backend cannot be reached
+     */
+    @Nullable
+    BundleContent fetch(String key);
+
+    /**
+     * Fetch every bundle whose key starts with the given prefix, in a single request if possible.
+     * @return the bundles by key, or {@code null} if the backend cannot list its keys
+     */
+    @Nullable
+    default Map<String, BundleContent> list(String prefix) {
+        return null;
+    }
+
+    /**
+     * Watch a key after it has been fetched, and call the listener whenever its content changes.
+     * Called again after every fetch of the key, so implementations must tolerate repeated calls.
+     * @param content the fetched content, or {@code null} if the key is missing
+     */
+    default void watch(String key, @Nullable BundleContent content, BundleListener listener) {
+    }
+
+    /**
+     * Stop watching a key whose bundle has been evicted from the cache, so that watches stay within the cache
+     * bounds. The key is watched again once it is fetched again.
+     */
+    default void unwatch(String key) {
+    }
+
+    /**
+     * Whether a fetched version is older than the cached one, such as a fetch that started before a watch
+     * update and returned after it. Versions that cannot be ordered, such as MD5 digests, are never older.
+     */
+    default boolean isOlder(@Nullable String version, @Nullable String cachedVersion) {
+        return false;
+    }
+
+    /**
+     * Whether a running watch reports the given key to the listener once it appears, after it has been
+     * fetched as missing. Missing keys that are not watched are re-checked in background while requested.
+     */
+    default boolean isWatching(String key) {
+        return false;
+    }
+
+    default void start() {
+    }
+
+    default void stop() {
+    }
+
+    default void setMetrics(MessageSourceMetrics metrics) {
+    }
+
+    interface BundleListener {
+
+        /**
+         * The content of a watched key has changed, or a missing key has appeared.
+         */
+        void bundleChanged(BundleContent content);
+
+        /**
+         * A watched key has been deleted.
+         */
+        default void bundleDeleted(String key) {
+        }
+
+        /**
+         * The backend confirmed that a watched key is up to date.
+         */
+        default void bundleConfirmed(String key) {
+        }
+    }
+}
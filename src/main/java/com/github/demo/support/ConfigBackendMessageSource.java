@@ -0,0 +1,990 @@
+package com.github.demo.support;
+
+import com.github.demo.context.MessageSourceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.support.AbstractResourceBasedMessageSource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Message source reading its bundles from a {@link ConfigBackend}. All the caching, loading and resolution
+ * lives here, so every backend gets the same lookup paths, snapshots, metrics and lifecycle.
+ */
+public class ConfigBackendMessageSource extends AbstractResourceBasedMessageSource implements SmartLifecycle, DisposableBean, LocaleBundleExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigBackendMessageSource.class);
+
+    private final ConfigBackend backend;
+
+    /** Node-local tier wrapping the configured backend, {@code null} unless a shared cache directory is set. */
+    @Nullable
+    private final SharedConfigBackend sharedCache;
+
+    private final MessageSourceProperties i18nProperties;
+
+    /** Configured basenames, highest priority first. */
+    private final List<String> basenames;
+
+    /** Log prefix, such as {@code ConsulConfigMessage}. */
+    private final String logTag;
+
+    private final BoundedCache<String, Long> cachedFetchTime;
+
+    private final BoundedCache<String, LocalPropertiesHolder> cachedProperties;
+
+    private final NegativeCache negativeCache;
+
+    private final ConcurrentMap<String, BoundedCache<Locale, List<String>>> cachedFilenames = new ConcurrentHashMap<>();
+
+    private final LocaleCanonicalizer localeCanonicalizer;
+
+    private final AsyncBundleLoader bundleLoader;
+
+    private final BundleSnapshotStore snapshotStore;
+
+    /** Bundles served from a local snapshot that have not been reconciled with the remote yet. */
+    private final Set<String> staleBundles = ConcurrentHashMap.newKeySet();
+
+    /** Time of the last remote confirmation of each bundle. */
+    private final ConcurrentMap<String, Long> cachedSyncTime = new ConcurrentHashMap<>();
+
+    private MessageSourceMetrics metrics = MessageSourceMetrics.NOOP;
+
+    /** Merged tables of each basename, so that a reload only rebuilds the tables of its own basename. */
+    private final Map<String, MergedMessageTables> mergedTables;
+
+    private final LocaleBundleExports exports;
+
+    private final ConfigBackend.BundleListener bundleListener = new ConfigBackend.BundleListener() {
+        @Override
+        public void bundleChanged(BundleContent content) {
+            logger.info("[{}] new {} config properties received ({})", logTag, content.getKey(), content.getVersion());
+            loadProperties(content);
+        }
+
+        @Override
+        public void bundleDeleted(String key) {
+            staleBundles.remove(key);
+            if (cachedProperties.peek(key) != null) {
+                logger.info("[{}] {} config properties deleted", logTag, key);
+                dropBundle(key);
+                negativeCache.recordMiss(key, backend.isWatching(key));
+            }
+        }
+
+        @Override
+        public void bundleConfirmed(String key) {
+            cachedSyncTime.put(key, System.currentTimeMillis());
+        }
+    };
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile boolean preloaded = false;
+
+    /** From the start of the preload until its last fetch, which may outlast the preload timeout. */
+    private volatile boolean preloading = false;
+
+    public ConfigBackendMessageSource(MessageSourceProperties i18nProperties, ConfigBackend backend) {
+        this.i18nProperties = i18nProperties;
+        if (StringUtils.hasText(i18nProperties.getSharedCacheDir())) {
+            this.sharedCache = new SharedConfigBackend(backend, i18nProperties.getSharedCacheDir(),
+                    i18nProperties.getSharedCacheTtlMs(), i18nProperties.getMissingBackoffMs());
+            this.backend = this.sharedCache;
+        } else {
+            this.sharedCache = null;
+            this.backend = backend;
+        }
+        this.basenames = basenames(i18nProperties);
+        setBasenames(StringUtils.toStringArray(this.basenames));
+        String name = backend.getName();
+        this.logTag = Character.toUpperCase(name.charAt(0)) + name.substring(1) + "ConfigMessage";
+        setAlwaysUseMessageFormat(i18nProperties.isAlwaysUseMessageFormat());
+        setUseCodeAsDefaultMessage(i18nProperties.isUseCodeAsDefaultMessage());
+        setFallbackToSystemLocale(i18nProperties.isFallbackToSystemLocale());
+        this.cachedFetchTime = new BoundedCache<>(i18nProperties.getCacheMaxBundles());
+        this.cachedProperties = new BoundedCache<>(i18nProperties.getCacheMaxBundles(),
+                i18nProperties.getCacheMaxMessages(), LocalPropertiesHolder::size, this::bundleEvicted);
+        Map<String, MergedMessageTables> mergedTables = new LinkedHashMap<>();
+        for (String basename : this.basenames) {
+            mergedTables.put(basename, new MergedMessageTables(cachedProperties::peek, i18nProperties.getCacheMaxLocales()));
+        }
+        this.mergedTables = Collections.unmodifiableMap(mergedTables);
+        this.exports = new LocaleBundleExports(cachedProperties::peek, i18nProperties.getCacheMaxLocales());
+        this.localeCanonicalizer = LocaleCanonicalizer.of(i18nProperties.getSupportedLocales());
+        this.bundleLoader = new AsyncBundleLoader(
+                AsyncBundleLoader.createExecutor("i18n-" + name + "-loader-", i18nProperties.getLoaderPoolSize()),
+                this::loadInitialProperties);
+        this.negativeCache = new NegativeCache(i18nProperties.getCacheMaxBundles(), i18nProperties.getMissingBackoffMs(),
+                i18nProperties.getDelayMs(), i18nProperties.getMissingBackoffJitter(), bundleLoader::load,
+                "i18n-" + name + "-recheck-");
+        if (StringUtils.hasText(i18nProperties.getSnapshotDir())) {
+            this.snapshotStore = new BundleSnapshotStore(i18nProperties.getSnapshotDir(), "i18n-" + name + "-snapshot-");
+            restoreSnapshots();
+        } else {
+            this.snapshotStore = null;
+        }
+    }
+
+    public ConfigBackend getBackend() {
+        return this.sharedCache != null ? this.sharedCache.getDelegate() : this.backend;
+    }
+
+    @Override
+    protected String resolveCodeWithoutArguments(String code, Locale locale) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+        String result = null;
+        int depth = MessageSourceMetrics.NOT_FOUND;
+        LocaleChain chain = boundChain(locale);
+        if (chain != null) {
+            if (chain.tables != null) {
+                for (MergedMessageTable table : chain.tables) {
+                    result = table.getMessage(code);
+                    if (result != null) {
+                        depth = MessageSourceMetrics.MERGED;
+                        break;
+                    }
+                }
+            } else {
+                LocalPropertiesHolder[] holders = chain.holders;
+                for (int i = 0; i < holders.length; i++) {
+                    if (holders[i] != null) {
+                        String message = holders[i].getProperty(code);
+                        if (!StringUtils.isEmpty(message)) {
+                            result = message;
+                            depth = i;
+                            break;
+                        }
+                    }
+                }
+            }
+        } else if (i18nProperties.isFlattenedLookup()) {
+            for (String basename : this.basenames) {
+                result = getMergedTable(basename, locale).getMessage(code);
+                if (result != null) {
+                    depth = MessageSourceMetrics.MERGED;
+                    break;
+                }
+            }
+        } else {
+            int index = 0;
+            lookup:
+            for (String basename : this.basenames) {
+                for (String filename : calculateAllFilenames(basename, locale)) {
+                    LocalPropertiesHolder holder = getCachedProperties(filename);
+                    if (holder != null) {
+                        String message = holder.getProperty(code);
+                        if (!StringUtils.isEmpty(message)) {
+                            result = message;
+                            depth = index;
+                            break lookup;
+                        }
+                    }
+                    index++;
+                }
+            }
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordResolve(locale, depth, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    @Override
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+        MessageFormat result = null;
+        int depth = MessageSourceMetrics.NOT_FOUND;
+        LocaleChain chain = boundChain(locale);
+        if (chain != null) {
+            if (chain.tables != null) {
+                for (MergedMessageTable table : chain.tables) {
+                    result = table.getMessageFormat(code);
+                    if (result != null) {
+                        depth = MessageSourceMetrics.MERGED;
+                        break;
+                    }
+                }
+            } else {
+                LocalPropertiesHolder[] holders = chain.holders;
+                for (int i = 0; i < holders.length; i++) {
+                    if (holders[i] != null) {
+                        result = holders[i].getMessageFormat(code, locale);
+                        if (result != null) {
+                            depth = i;
+                            break;
+                        }
+                    }
+                }
+            }
+        } else if (i18nProperties.isFlattenedLookup()) {
+            for (String basename : this.basenames) {
+                result = getMergedTable(basename, locale).getMessageFormat(code);
+                if (result != null) {
+                    depth = MessageSourceMetrics.MERGED;
+                    break;
+                }
+            }
+        } else {
+            int index = 0;
+            lookup:
+            for (String basename : this.basenames) {
+                for (String filename : calculateAllFilenames(basename, locale)) {
+                    LocalPropertiesHolder holder = getCachedProperties(filename);
+                    if (holder != null) {
+                        result = holder.getMessageFormat(code, locale);
+                        if (result != null) {
+                            depth = index;
+                            break lookup;
+                        }
+                    }
+                    index++;
+                }
+            }
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordResolve(locale, depth, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    @Override
+    protected String getMessageInternal(String code, Object[] args, Locale locale) {
+        // Everything below, caches included, only ever sees canonical locales.
+        locale = canonicalLocale(locale);
+        if (i18nProperties.isPrecompiledFormat() && code != null && !ObjectUtils.isEmpty(args)) {
+            Locale localeToUse = locale != null ? locale : Locale.getDefault();
+            MessageTemplate template = resolveTemplate(code, localeToUse);
+            if (template != null) {
+                return template.format(resolveArguments(args, localeToUse), localeToUse);
+            }
+        }
+        // Messages that need a full MessageFormat keep the synchronized MessageFormat path.
+        return super.getMessageInternal(code, args, locale);
+    }
+
+    @Override
+    protected String formatMessage(String msg, Object[] args, Locale locale) {
+        // Default messages are formatted through the MessageFormat cache of MessageSourceSupport.
+        return super.formatMessage(msg, args, canonicalLocale(locale));
+    }
+
+    private Locale canonicalLocale(Locale locale) {
+        return localeCanonicalizer.canonicalize(locale != null ? locale : Locale.getDefault(), getDefaultLocale());
+    }
+
+    /**
+     * Resolve many codes at once, walking the locale fallback chain a single time. Messages are returned
+     * exactly as {@code getMessage(code, null, locale)} would, without arguments.
+     * @return immutable {@code code -> message} map in the iteration order of {@code codes}, without the
+     * codes that cannot be resolved (unless {@code useCodeAsDefaultMessage} is set)
+     */
+    public Map<String, String> resolveAll(Collection<String> codes, Locale locale) {
+        Locale localeToUse = canonicalLocale(locale);
+        Map<String, String> result = new LinkedHashMap<>(codes.size() * 4 / 3 + 1);
+        if (isAlwaysUseMessageFormat()) {
+            for (String code : codes) {
+                putIfResolved(result, code, getMessageInternal(code, null, localeToUse));
+            }
+            return Collections.unmodifiableMap(result);
+        }
+        MergedMessageTable[] tables = null;
+        LocalPropertiesHolder[] holders = null;
+        LocaleChain chain = boundChain(localeToUse);
+        if (chain != null) {
+            tables = chain.tables;
+            holders = chain.holders;
+        } else if (i18nProperties.isFlattenedLookup()) {
+            tables = new MergedMessageTable[this.basenames.size()];
+            for (int i = 0; i < tables.length; i++) {
+                tables[i] = getMergedTable(this.basenames.get(i), localeToUse);
+            }
+        } else {
+            List<String> filenames = calculateAllFilenames(localeToUse);
+            holders = new LocalPropertiesHolder[filenames.size()];
+            for (int i = 0; i < holders.length; i++) {
+                holders[i] = getCachedProperties(filenames.get(i));
+            }
+        }
+        for (String code : codes) {
+            String message = null;
+            if (tables != null) {
+                for (MergedMessageTable table : tables) {
+                    message = table.getMessage(code);
+                    if (message != null) {
+                        break;
+                    }
+                }
+            } else {
+                for (LocalPropertiesHolder holder : holders) {
+                    if (holder != null) {
+                        message = holder.getProperty(code);
+                        if (!StringUtils.isEmpty(message)) {
+                            break;
+                        }
+                        message = null;
+                    }
+                }
+            }
+            if (message == null) {
+                // Common messages and parent message source.
+                message = getMessageInternal(code, null, localeToUse);
+            }
+            putIfResolved(result, code, message);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private void putIfResolved(Map<String, String> result, String code, String message) {
+        if (message != null) {
+            result.put(code, message);
+        } else if (isUseCodeAsDefaultMessage()) {
+            result.put(code, code);
+        }
+    }
+
+    /**
+     * Every message of the locale as gzip-ready JSON, serialized again only after one of its bundles changed.
+     */
+    @Override
+    public LocaleBundleExport exportMessages(Locale locale) {
+        Locale localeToUse = canonicalLocale(locale);
+        List<String> filenames = calculateAllFilenames(localeToUse);
+        for (String filename : filenames) {
+            getCachedProperties(filename);
+        }
+        return exports.get(localeToUse, filenames);
+    }
+
+    private MessageTemplate resolveTemplate(String code, Locale locale) {
+        MessageTemplate result = null;
+        LocaleChain chain = boundChain(locale);
+        if (chain != null) {
+            if (chain.tables != null) {
+                for (MergedMessageTable table : chain.tables) {
+                    result = table.getMessageTemplate(code);
+                    if (result != null) {
+                        break;
+                    }
+                }
+            } else {
+                for (LocalPropertiesHolder holder : chain.holders) {
+                    if (holder != null) {
+                        result = holder.getMessageTemplate(code);
+                        if (result != null) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return result != null && result.isCompiled() ? result : null;
+        }
+        lookup:
+        for (String basename : this.basenames) {
+            if (i18nProperties.isFlattenedLookup()) {
+                result = getMergedTable(basename, locale).getMessageTemplate(code);
+                if (result != null) {
+                    break;
+                }
+                continue;
+            }
+            for (String filename : calculateAllFilenames(basename, locale)) {
+                LocalPropertiesHolder holder = getCachedProperties(filename);
+                if (holder != null) {
+                    result = holder.getMessageTemplate(code);
+                    if (result != null) {
+                        break lookup;
+                    }
+                }
+            }
+        }
+        return result != null && result.isCompiled() ? result : null;
+    }
+
+    /**
+     * Resolve the bundle chain of a locale once, for lookups bound through a {@link LocaleChainScope} or
+     * passed to {@link #getMessage(String, Object[], String, LocaleChain)}.
+     * @param blocking whether missing bundles may be fetched on the calling thread; otherwise they are
+     * fetched in background and left out of the chain, so that an event loop is never blocked
+     */
+    public LocaleChain resolveChain(Locale locale, boolean blocking) {
+        Locale localeToUse = canonicalLocale(locale);
+        if (i18nProperties.isFlattenedLookup()) {
+            MergedMessageTable[] tables = new MergedMessageTable[this.basenames.size()];
+            for (int i = 0; i < tables.length; i++) {
+                tables[i] = getMergedTable(this.basenames.get(i), localeToUse, blocking);
+            }
+            return new LocaleChain(this, localeToUse, null, tables);
+        }
+        List<String> filenames = calculateAllFilenames(localeToUse);
+        LocalPropertiesHolder[] holders = new LocalPropertiesHolder[filenames.size()];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = getCachedProperties(filenames.get(i), blocking);
+        }
+        return new LocaleChain(this, localeToUse, holders, null);
+    }
+
+    /**
+     * Fetch the missing bundles of the locale chain in background, sharing the loads already in flight.
+     * @return the chain once every bundle is cached or known missing, already completed when nothing is
+     * missing; never blocks the calling thread
+     */
+    public CompletableFuture<LocaleChain> loadChainAsync(Locale locale) {
+        Locale localeToUse = canonicalLocale(locale);
+        List<CompletableFuture<?>> loads = null;
+        for (String filename : calculateAllFilenames(localeToUse)) {
+            if (cachedProperties.peek(filename) == null && !negativeCache.isMissing(filename)) {
+                if (loads == null) {
+                    loads = new ArrayList<>();
+                }
+                // A failed load leaves the bundle out of the chain, as a missing one.
+                loads.add(bundleLoader.load(filename).handle((result, ex) -> null));
+            }
+        }
+        if (loads == null) {
+            return CompletableFuture.completedFuture(resolveChain(localeToUse, false));
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]))
+                .thenApply(loaded -> resolveChain(localeToUse, false));
+    }
+
+    /**
+     * Resolve a message through a chain resolved beforehand, e.g. by a reactive web filter. Never fetches
+     * a bundle on the calling thread.
+     */
+    public String getMessage(String code, @Nullable Object[] args, @Nullable String defaultMessage, LocaleChain chain) {
+        LocaleChainScope previous = LocaleChainScope.open(chain);
+        try {
+            return getMessage(code, args, defaultMessage, chain.getLocale());
+        } finally {
+            LocaleChainScope.restore(previous);
+        }
+    }
+
+    /**
+     * @return the chain of the locale in the scope bound to the current thread, resolved on first use
+     */
+    @Nullable
+    private LocaleChain boundChain(Locale locale) {
+        LocaleChainScope scope = LocaleChainScope.current();
+        if (scope == null) {
+            return null;
+        }
+        LocaleChain chain = scope.get(this, locale);
+        if (chain == null && !scope.isFull()) {
+            chain = resolveChain(locale, scope.isBlocking());
+            scope.add(chain);
+        }
+        return chain;
+    }
+
+    private LocalPropertiesHolder getCachedProperties(String filename) {
+        return getCachedProperties(filename, true);
+    }
+
+    /**
+     * Return the cached bundle, loading it first unless it is known to be missing.
+     * @param blocking whether it may be fetched on the calling thread
+     */
+    private LocalPropertiesHolder getCachedProperties(String filename, boolean blocking) {
+        LocalPropertiesHolder holder = cachedProperties.get(filename);
+        if (holder == null) {
+            if (negativeCache.isMissing(filename)) {
+                // Re-checked in background with backoff, never inline.
+                metrics.recordBundleCache(MessageSourceMetrics.CacheResult.NEGATIVE_HIT);
+                return null;
+            }
+            metrics.recordBundleCache(MessageSourceMetrics.CacheResult.MISS);
+            if (i18nProperties.isAsyncLoading() || !blocking) {
+                // Fetch in background and fall through to the next filename in the chain.
+                bundleLoader.load(filename);
+                return null;
+            }
+            CompletableFuture<Void> loading = bundleLoader.getLoading(filename);
+            if (loading != null) {
+                // Already fetched by the preload or in background: wait for it instead of fetching it twice.
+                loading.handle((result, ex) -> null).join();
+            } else {
+                loadInitialProperties(filename);
+            }
+            holder = cachedProperties.peek(filename);
+        } else if (!staleBundles.isEmpty() && staleBundles.contains(filename) && !isWaitingForDelay(filename)) {
+            // Served from the local snapshot, retry the reconciliation with the remote in background.
+            bundleLoader.load(filename);
+        } else {
+            metrics.recordBundleCache(MessageSourceMetrics.CacheResult.HIT);
+        }
+        return holder;
+    }
+
+    private boolean isWaitingForDelay(String filename) {
+        Long lastTime = cachedFetchTime.peek(filename);
+        return lastTime != null && System.currentTimeMillis() - lastTime < i18nProperties.getDelayMs();
+    }
+
+    /**
+     * Serve the bundles of the local snapshot right away, then reconcile them with the remote in background.
+     */
+    private void restoreSnapshots() {
+        Map<String, BundleSnapshotStore.Snapshot> snapshots = new LinkedHashMap<>();
+        for (String basename : this.basenames) {
+            snapshots.putAll(snapshotStore.loadAll(basename));
+        }
+        for (BundleSnapshotStore.Snapshot snapshot : snapshots.values()) {
+            cachedProperties.put(snapshot.filename, new LocalPropertiesHolder(snapshot.properties, null, snapshot.version,
+                    i18nProperties.getStorage(), i18nProperties.getCacheMaxFormats()));
+            staleBundles.add(snapshot.filename);
+        }
+        if (!snapshots.isEmpty()) {
+            logger.info("[{}] restored {} bundles from snapshot", logTag, snapshots.size());
+        }
+        for (String filename : snapshots.keySet()) {
+            bundleLoader.load(filename);
+        }
+    }
+
+    private MergedMessageTable getMergedTable(String basename, Locale locale) {
+        return getMergedTable(basename, locale, true);
+    }
+
+    private MergedMessageTable getMergedTable(String basename, Locale locale, boolean blocking) {
+        MergedMessageTables tables = mergedTables.get(basename);
+        MergedMessageTable table = tables.get(locale);
+        if (table == null) {
+            List<String> filenames = calculateAllFilenames(basename, locale);
+            for (String filename : filenames) {
+                getCachedProperties(filename, blocking);
+            }
+            return tables.build(locale, filenames);
+        }
+        // Bundles that arrive later rebuild the table through loadProperties.
+        requestMissing(table);
+        return table;
+    }
+
+    /**
+     * A table is served without going through {@link #getCachedProperties}: the bundles it lacks are requested
+     * here, so that their misses keep being re-checked and the table is rebuilt once they are published.
+     */
+    private void requestMissing(MergedMessageTable table) {
+        for (String filename : table.getMissingFilenames()) {
+            if (!negativeCache.isMissing(filename) && cachedProperties.peek(filename) == null) {
+                // Expired while idle, or the load failed: fetch it again in background, never inline.
+                bundleLoader.load(filename);
+            }
+        }
+    }
+
+    /**
+     * Filenames of every basename for the locale, in lookup order.
+     */
+    private List<String> calculateAllFilenames(Locale locale) {
+        if (this.basenames.size() == 1) {
+            return calculateAllFilenames(this.basenames.get(0), locale);
+        }
+        List<String> filenames = new ArrayList<>();
+        for (String basename : this.basenames) {
+            filenames.addAll(calculateAllFilenames(basename, locale));
+        }
+        return filenames;
+    }
+
+    protected List<String> calculateAllFilenames(String basename, Locale locale) {
+        BoundedCache<Locale, List<String>> localeMap = filenameCache(basename);
+        List<String> cached = localeMap.get(locale);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Filenames for given Locale
+        List<String> filenames = new ArrayList<>(7);
+        filenames.addAll(calculateFilenamesForLocale(basename, locale));
+
+        // Filenames for default Locale, if any
+        Locale defaultLocale = getDefaultLocale();
+        if (defaultLocale != null && !defaultLocale.equals(locale)) {
+            List<String> fallbackFilenames = calculateFilenamesForLocale(basename, defaultLocale);
+            for (String fallbackFilename : fallbackFilenames) {
+                if (!filenames.contains(fallbackFilename)) {
+                    // Entry for fallback locale that isn't already in filenames list.
+                    filenames.add(fallbackFilename);
+                }
+            }
+        }
+
+        // Filename for default bundle file
+        filenames.add(basename);
+
+        localeMap.put(locale, filenames);
+        return filenames;
+    }
+
+    private BoundedCache<Locale, List<String>> filenameCache(String basename) {
+        BoundedCache<Locale, List<String>> localeMap = this.cachedFilenames.get(basename);
+        if (localeMap == null) {
+            localeMap = this.cachedFilenames.computeIfAbsent(basename,
+                    key -> new BoundedCache<>(i18nProperties.getCacheMaxLocales()));
+        }
+        return localeMap;
+    }
+
+
+    protected List<String> calculateFilenamesForLocale(String basename, Locale locale) {
+        List<String> result = new ArrayList<>(3);
+        String language = locale.getLanguage();
+        String country = locale.getCountry();
+        String variant = locale.getVariant();
+        StringBuilder temp = new StringBuilder(basename);
+
+        temp.append('_');
+        if (language.length() > 0) {
+            temp.append(language);
+            result.add(0, temp.toString());
+        }
+
+        temp.append('_');
+        if (country.length() > 0) {
+            temp.append(country);
+            result.add(0, temp.toString());
+        }
+
+        if (variant.length() > 0 && (language.length() > 0 || country.length() > 0)) {
+            temp.append('_').append(variant);
+            result.add(0, temp.toString());
+        }
+
+        return result;
+    }
+
+
+    public void loadInitialProperties(String code) {
+        if (negativeCache.contains(code)) {
+            logger.debug("[{}] Re-check missing properties from {} : {}", logTag, backend.getName(), code);
+        } else {
+            logger.info("[{}] Initial properties from {} : {}", logTag, backend.getName(), code);
+        }
+        long start = System.nanoTime();
+        cachedFetchTime.put(code, System.currentTimeMillis());
+        boolean found = false;
+        boolean fetched = false;
+        try {
+            BundleContent content = backend.fetch(code);
+            fetched = true;
+            metrics.recordRemoteFetch(System.nanoTime() - start);
+            found = content != null && !StringUtils.isEmpty(content.getContent());
+            if (found) {
+                logger.debug("[{}] receive {} properties ({}) from {}", logTag, code, content.getVersion(), backend.getName());
+                LocalPropertiesHolder cached = cachedProperties.peek(code);
+                if (cached != null && !staleBundles.contains(code) && backend.isOlder(content.getVersion(), cached.getVersion())) {
+                    // A watch update was applied while this fetch was in flight. Snapshots are always replaced.
+                    logger.debug("[{}] skip {} properties ({}), {} already loaded", logTag, code, content.getVersion(),
+                            cached.getVersion());
+                } else {
+                    loadProperties(content);
+                }
+            }
+            backend.watch(code, found ? content : null, bundleListener);
+        } finally {
+            metrics.recordLoad(System.nanoTime() - start, found);
+            if (!found) {
+                if (fetched && staleBundles.remove(code)) {
+                    // Deleted remotely: stop serving the snapshot. A failed fetch keeps it while retrying.
+                    logger.info("[{}] {} no longer exists on {}, dropping its snapshot", logTag, code, backend.getName());
+                    dropBundle(code);
+                }
+                // Only a confirmed miss can be left to the watch, a failed fetch is always re-checked.
+                negativeCache.recordMiss(code, fetched && backend.isWatching(code));
+            }
+        }
+    }
+
+    private void loadProperties(BundleContent content) {
+        String code = content.getKey();
+        String source = content.getContent();
+        if (!StringUtils.isEmpty(source)) {
+            // Parsed straight from the decoded content, the backend has applied the configured encoding.
+            Map<String, String> messages = PropertiesParser.parse(source);
+            LocalPropertiesHolder previous = cachedProperties.peek(code);
+            LocalPropertiesHolder holder = new LocalPropertiesHolder(messages, previous, content.getVersion(),
+                    i18nProperties.getStorage(), i18nProperties.getCacheMaxFormats());
+            boolean changed = previous == null || !holder.hasSameMessages(previous);
+            if (changed && cachedProperties.isOverweight(holder)) {
+                logger.warn("[{}] {} has {} messages, more than cache-max-messages ({}), it is kept outside the limit",
+                        logTag, code, holder.size(), i18nProperties.getCacheMaxMessages());
+            }
+            // Unchanged messages only refresh the version, the merged tables stay valid.
+            cachedProperties.put(code, holder);
+            negativeCache.invalidate(code);
+            if (changed) {
+                // Only the tables built from this bundle are rebuilt, other basenames keep theirs.
+                for (MergedMessageTables tables : mergedTables.values()) {
+                    tables.bundleChanged(code);
+                }
+                exports.bundleChanged(code);
+                if (previous != null) {
+                    logger.info("[{}] reloaded {} properties, {} compiled formats kept", logTag, code, holder.cachedFormatCount());
+                }
+            } else {
+                logger.debug("[{}] {} properties unchanged", logTag, code);
+            }
+            cachedSyncTime.put(code, System.currentTimeMillis());
+            metrics.bundleLoaded(code);
+            boolean reconciled = staleBundles.remove(code);
+            if (snapshotStore != null && (changed || reconciled)) {
+                snapshotStore.save(code, holder.getVersion(), holder);
+            }
+        }
+    }
+
+    /**
+     * The watch of an evicted bundle would keep a listener per bundle ever requested.
+     */
+    private void bundleEvicted(String code, LocalPropertiesHolder holder) {
+        if (cachedProperties.peek(code) == null) {
+            backend.unwatch(code);
+        }
+    }
+
+    /**
+     * Forget a bundle that the backend no longer has, along with its snapshot.
+     */
+    private void dropBundle(String code) {
+        // Queued before the bundle disappears, so that a close right after still deletes the snapshot.
+        if (snapshotStore != null) {
+            snapshotStore.delete(code);
+        }
+        if (cachedProperties.remove(code) != null) {
+            for (MergedMessageTables tables : mergedTables.values()) {
+                tables.bundleChanged(code);
+            }
+            exports.bundleChanged(code);
+        }
+        cachedSyncTime.remove(code);
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void start() {
+        if (this.running.compareAndSet(false, true)) {
+            if (i18nProperties.isPreload()) {
+                preload();
+            }
+            backend.start();
+            negativeCache.resume();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (this.running.compareAndSet(true, false)) {
+            negativeCache.pause();
+            backend.stop();
+        }
+    }
+
+    /**
+     * Stop and release the background threads, the message source cannot be started again.
+     */
+    @Override
+    public void destroy() {
+        stop();
+        negativeCache.shutdown();
+        bundleLoader.shutdown();
+        if (snapshotStore != null) {
+            snapshotStore.close();
+        }
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    /**
+     * Eagerly fetch the bundles of the configured locales. When no locale is configured, every bundle under
+     * the basename prefixes is fetched if the backend can list its keys, else the bundles of the default locale.
+     * Blocks until finished so the context is not ready before.
+     */
+    protected void preload() {
+        long start = System.nanoTime();
+        this.preloading = true;
+        List<Locale> locales = i18nProperties.getPreloadLocales();
+        boolean discover = locales == null || locales.isEmpty();
+        Boolean discovered = discover ? discoverBundles() : null;
+        if (Boolean.TRUE.equals(discovered)) {
+            this.preloaded = true;
+            this.preloading = false;
+        } else {
+            if (discover) {
+                locales = Collections.singletonList(getDefaultLocale() != null ? getDefaultLocale() : Locale.ROOT);
+            }
+            Set<String> filenames = new LinkedHashSet<>();
+            for (Locale locale : locales) {
+                filenames.addAll(calculateAllFilenames(locale));
+            }
+            BundlePreloader preloader = new BundlePreloader("i18n-" + backend.getName() + "-preload-",
+                    i18nProperties.getPreloadConcurrency(), i18nProperties.getPreloadTimeoutMs());
+            // Through the single-flight loader, so that requests arriving meanwhile share the preload fetches.
+            boolean loaded = preloader.preload(filenames, bundleLoader::load, completed -> {
+                // A failed discovery only preloads the default locale, the other bundles are still unknown.
+                this.preloaded = completed && discovered == null;
+                this.preloading = false;
+            });
+            if (!loaded) {
+                logger.warn("[{}] starting before the end of the preload, {} bundles cached after {} ms",
+                        logTag, cachedProperties.size(), BundlePreloader.elapsedMs(start));
+                return;
+            }
+        }
+        logger.info("[{}] preload finished in {} ms, {} bundles cached",
+                logTag, BundlePreloader.elapsedMs(start), cachedProperties.size());
+    }
+
+    /**
+     * @return {@code true} if every bundle was fetched, {@code false} if listing failed, {@code null} if the
+     * backend cannot list its keys
+     */
+    @Nullable
+    private Boolean discoverBundles() {
+        for (String basename : this.basenames) {
+            Boolean discovered = discoverBundles(basename);
+            if (!Boolean.TRUE.equals(discovered)) {
+                return discovered;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private Boolean discoverBundles(String basename) {
+        long start = System.nanoTime();
+        Map<String, BundleContent> bundles;
+        try {
+            bundles = backend.list(basename);
+        } catch (RuntimeException ex) {
+            // Never fail the startup: the bundles are fetched on demand, or served from the snapshots meanwhile.
+            logger.warn("[{}] cannot list bundles under {} from {}, preloading the default locale only",
+                    logTag, basename, backend.getName(), ex);
+            return false;
+        }
+        if (bundles == null) {
+            return null;
+        }
+        if (bundles.isEmpty()) {
+            logger.info("[{}] no bundle found under {}", logTag, basename);
+            return true;
+        }
+        for (BundleContent content : bundles.values()) {
+            String key = content.getKey();
+            if (isBundleKey(basename, key) && !StringUtils.isEmpty(content.getContent())) {
+                cachedFetchTime.put(key, System.currentTimeMillis());
+                loadProperties(content);
+                backend.watch(key, content, bundleListener);
+            }
+        }
+        logger.info("[{}] fetched bundles under {} in {} ms", logTag, basename, BundlePreloader.elapsedMs(start));
+        return true;
+    }
+
+    static boolean isBundleKey(String basename, String key) {
+        return key != null && (key.equals(basename) || key.startsWith(basename + "_"));
+    }
+
+    /**
+     * @return {@code basenames} if any, else the single {@code basename}
+     */
+    static List<String> basenames(MessageSourceProperties i18nProperties) {
+        List<String> basenames = new ArrayList<>();
+        if (i18nProperties.getBasenames() != null) {
+            for (String basename : i18nProperties.getBasenames()) {
+                if (StringUtils.hasText(basename) && !basenames.contains(basename.trim())) {
+                    basenames.add(basename.trim());
+                }
+            }
+        }
+        if (basenames.isEmpty()) {
+            basenames.add(i18nProperties.getBasename());
+        }
+        return Collections.unmodifiableList(basenames);
+    }
+
+    public void setMetrics(MessageSourceMetrics metrics) {
+        this.metrics = metrics;
+        backend.setMetrics(metrics);
+        metrics.bindBundles(cachedProperties.asMap(), cachedSyncTime);
+        metrics.bindCache("bundles", cachedProperties::stats);
+        metrics.bindCache("filenames", this::filenameStats);
+        metrics.bindCache("fetch-times", cachedFetchTime::stats);
+        metrics.bindCache("missing", negativeCache::stats);
+        metrics.bindCache("exports", exports::stats);
+        if (sharedCache != null) {
+            metrics.bindCache("shared", sharedCache::stats);
+        }
+    }
+
+    /**
+     * Statistics of the bounded caches of this message source, by cache name.
+     */
+    public Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("bundles", cachedProperties.stats());
+        stats.put("filenames", filenameStats());
+        stats.put("fetch-times", cachedFetchTime.stats());
+        stats.put("missing", negativeCache.stats());
+        stats.put("exports", exports.stats());
+        if (sharedCache != null) {
+            stats.put("shared", sharedCache.stats());
+        }
+        return stats;
+    }
+
+    private CacheStats filenameStats() {
+        if (this.basenames.size() == 1) {
+            return filenameCache(this.basenames.get(0)).stats();
+        }
+        long hits = 0, misses = 0, evictions = 0, size = 0, weightedSize = 0;
+        for (String basename : this.basenames) {
+            CacheStats stats = filenameCache(basename).stats();
+            hits += stats.getHitCount();
+            misses += stats.getMissCount();
+            evictions += stats.getEvictionCount();
+            size += stats.getSize();
+            weightedSize += stats.getWeightedSize();
+        }
+        return new CacheStats(hits, misses, evictions, size, weightedSize);
+    }
+
+    /**
+     * Whether every bundle to preload has been fetched.
+     */
+    public boolean isPreloaded() {
+        return this.preloaded;
+    }
+
+    /**
+     * Whether the preload is still running, possibly in background after the preload timeout.
+     */
+    public boolean isPreloading() {
+        return this.preloading;
+    }
+}
@@ -0,0 +1,364 @@
+package com.github.demo.support;
+
+import com.ecwid.consul.v1.ConsulClient;
+import com.ecwid.consul.v1.QueryParams;
+import com.ecwid.consul.v1.Response;
+import com.ecwid.consul.v1.kv.model.GetValue;
+import com.github.demo.context.ConsulMessageSourceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.consul.ConsulProperties;
+import org.springframework.cloud.consul.config.ConsulConfigProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Consul KV backend. Changes are watched with blocking queries, either one per key or one recursive
+ * query per basename prefix, each run by the {@link WatchEngine} on its own (virtual) thread and
+ * repeated after the Consul watch delay. The index and health of every watch are kept in a
+ * {@link ConsulWatchRegistry} and exposed through {@link #getWatchStates()}.
+ */
+public class ConsulConfigBackend implements ConfigBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsulConfigBackend.class);
+
+    private final ConsulClient consul;
+
+    private final ConsulConfigProperties properties;
+
+    private final ConsulMessageSourceProperties i18nProperties;
+
+    private final WatchEngine watchEngine;
+
+    /** Agent queried through the client, {@code null} if unknown. */
+    @Nullable
+    private final ConsulProperties agent;
+
+    /** Consul index of every watched key, {@code -1} for the missing keys watched by prefix. */
+    private final ConsulWatchRegistry registry;
+
+    private volatile BundleListener listener;
+
+    private MessageSourceMetrics metrics = MessageSourceMetrics.NOOP;
+
+    /** Watch of each basename prefix in {@code PREFIX} mode. */
+    private final Map<String, PrefixWatch> prefixWatches = new LinkedHashMap<>();
+
+    public ConsulConfigBackend(ConsulClient consul, ConsulConfigProperties properties,
+                               ConsulMessageSourceProperties i18nProperties, TaskScheduler taskScheduler) {
+        this(consul, properties, i18nProperties, taskScheduler, null);
+    }
+
+    /**
+     * @param agent host and port of the agent behind the client, part of the scope of the bundles
+     */
+    public ConsulConfigBackend(ConsulClient consul, ConsulConfigProperties properties,
+                               ConsulMessageSourceProperties i18nProperties, TaskScheduler taskScheduler,
+                               @Nullable ConsulProperties agent) {
+        this.consul = consul;
+        this.agent = agent;
+        this.properties = properties;
+        this.i18nProperties = i18nProperties;
+        this.registry = new ConsulWatchRegistry(i18nProperties.getCacheMaxBundles());
+        if (!isKeyMode()) {
+            for (String basename : ConfigBackendMessageSource.basenames(i18nProperties)) {
+                this.prefixWatches.put(basename, new PrefixWatch(basename, this.registry.trackPrefix(basename)));
+            }
+        }
+        this.watchEngine = new WatchEngine("ConsulConfigMessage", "i18n-consul-watch-",
+                i18nProperties.getWatchConcurrency(), i18nProperties.isWatchVirtualThreads(),
+                i18nProperties.getWatchBackoffMs(), i18nProperties.getWatchMaxBackoffMs(), taskScheduler);
+    }
+
+    @Override
+    public String getName() {
+        return "consul";
+    }
+
+    /**
+     * The agent, which also selects the datacenter, and a digest of the ACL token: the token may hide keys.
+     */
+    @Override
+    public String getScope() {
+        String address = this.agent != null
+                ? this.agent.getScheme() + "://" + this.agent.getHost() + ":" + this.agent.getPort() : "";
+        String token = this.properties.getAclToken();
+        return StringUtils.hasText(token)
+                ? address + "#" + DigestUtils.md5DigestAsHex(token.getBytes(StandardCharsets.UTF_8)) : address;
+    }
+
+    @Override
+    public BundleContent fetch(String key) {
+        if (this.consul == null) {
+            throw new IllegalStateException("Consul has not been initialized or error occurred");
+        }
+        Response<GetValue> response = consul.getKVValue(key, this.properties.getAclToken(), QueryParams.DEFAULT);
+        if (response == null) {
+            return null;
+        }
+        logger.debug("[ConsulConfigMessage] receive {} properties {} from consul", key, response);
+        GetValue getValue = response.getValue();
+        if (getValue == null) {
+            return null;
+        }
+        return content(key, getValue, response.getConsulIndex());
+    }
+
+    @Override
+    public Map<String, BundleContent> list(String prefix) {
+        Response<List<GetValue>> response = consul.getKVValues(prefix, this.properties.getAclToken());
+        if (response == null || response.getValue() == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, BundleContent> bundles = new LinkedHashMap<>();
+        for (GetValue getValue : response.getValue()) {
+            bundles.put(getValue.getKey(), content(getValue.getKey(), getValue, response.getConsulIndex()));
+        }
+        return bundles;
+    }
+
+    @Override
+    public void watch(String key, @Nullable BundleContent content, BundleListener listener) {
+        this.listener = listener;
+        if (content != null) {
+            ConsulWatchRegistry.Entry entry = this.registry.trackKey(key, index(content.getVersion()));
+            if (isKeyMode() && this.watchEngine.isRunning()) {
+                watchKey(entry);
+            }
+        } else if (!isKeyMode()) {
+            // The prefix query sees the missing bundle as soon as it is published.
+            this.registry.trackMissingKey(key);
+        }
+    }
+
+    /**
+     * Bundles are versioned by Consul index, whether fetched or watched.
+     */
+    @Override
+    public boolean isOlder(@Nullable String version, @Nullable String cachedVersion) {
+        long index = index(version);
+        return index >= 0 && index < index(cachedVersion);
+    }
+
+    /**
+     * Missing keys are only watched in {@code PREFIX} mode, by the query of their basename prefix.
+     */
+    @Override
+    public boolean isWatching(String key) {
+        return !isKeyMode() && this.watchEngine.isRunning() && this.registry.getKey(key) != null;
+    }
+
+    @Override
+    public void start() {
+        this.watchEngine.start();
+        if (isKeyMode()) {
+            for (ConsulWatchRegistry.Entry entry : this.registry.keyEntries()) {
+                watchKey(entry);
+            }
+        } else {
+            for (PrefixWatch prefixWatch : this.prefixWatches.values()) {
+                this.registry.attachIfAbsent(prefixWatch.entry, () -> this.watchEngine.watch("prefix " + prefixWatch.basename,
+                        () -> timed(prefixWatch::query), this.properties.getWatch().getDelay()));
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        this.watchEngine.stop();
+        this.registry.detachAll();
+    }
+
+    /**
+     * Index and health of every watched key, and of the basename prefixes in {@code PREFIX} mode.
+     */
+    public List<ConsulWatchState> getWatchStates() {
+        return this.registry.states();
+    }
+
+    private void watchKey(ConsulWatchRegistry.Entry entry) {
+        this.registry.attachIfAbsent(entry, () -> this.watchEngine.watch("key " + entry.getName(),
+                () -> timed(listener -> listenerKey(entry, listener)), this.properties.getWatch().getDelay()));
+    }
+
+    private boolean isKeyMode() {
+        return i18nProperties.getWatchMode() != ConsulMessageSourceProperties.WatchMode.PREFIX;
+    }
+
+    @Override
+    public void setMetrics(MessageSourceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Run one round of blocking queries over the watched keys on the calling thread. The watch engine
+     * runs them continuously once started.
+     */
+    public void watchCycle() {
+        if (isKeyMode()) {
+            for (ConsulWatchRegistry.Entry entry : this.registry.keyEntries()) {
+                timed(listener -> listenerKey(entry, listener));
+            }
+        } else {
+            for (PrefixWatch prefixWatch : this.prefixWatches.values()) {
+                timed(prefixWatch::query);
+            }
+        }
+    }
+
+    private void timed(Consumer<BundleListener> query) {
+        BundleListener listener = this.listener;
+        if (listener == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            query.accept(listener);
+        } finally {
+            metrics.recordWatchCycle(System.nanoTime() - start);
+        }
+    }
+
+    private void listenerKey(ConsulWatchRegistry.Entry entry, BundleListener listener) {
+        String context = entry.getName();
+        long lastIndex = entry.queryIndex();
+
+        // It will be blocked until watchTimeout(s) if rule data has no update.
+        logger.debug("[ConsulConfigMessage] watch {} config properties", context);
+        Response<GetValue> response = this.consul.getKVValue(context,
+                this.properties.getAclToken(),
+                lastIndex < 0 ? QueryParams.DEFAULT : new QueryParams(this.properties.getWatch().getWaitTime(), lastIndex));
+        if (response == null) {
+            logger.debug("[ConsulConfigMessage] {} config properties no update", context);
+            return;
+        }
+        listener.bundleConfirmed(context);
+        ConsulWatchRegistry.Advance advance = entry.advance(response.getConsulIndex());
+        if (advance == ConsulWatchRegistry.Advance.UNCHANGED) {
+            logger.debug("[ConsulConfigMessage] {} config properties no update", context);
+            return;
+        }
+        if (advance == ConsulWatchRegistry.Advance.RESET) {
+            logger.warn("[ConsulConfigMessage] {} index went backwards ({} -> {}), watch reset",
+                    context, lastIndex, entry.getIndex());
+        }
+        GetValue getValue = response.getValue();
+        if (getValue != null) {
+            listener.bundleChanged(content(context, getValue, entry.getIndex()));
+        } else {
+            logger.info("[ConsulConfigMessage] {} deleted", context);
+            listener.bundleDeleted(context);
+        }
+    }
+
+    /**
+     * Watch every bundle of a basename with a single recursive blocking query on its prefix and reload only
+     * the keys whose modify index changed. Each basename has its own query, so a change to one basename never
+     * reloads the bundles of the others.
+     */
+    private final class PrefixWatch {
+
+        private final String basename;
+
+        private final ConsulWatchRegistry.Entry entry;
+
+        private final Map<String, Long> modifyIndexes = new HashMap<>();
+
+        private PrefixWatch(String basename, ConsulWatchRegistry.Entry entry) {
+            this.basename = basename;
+            this.entry = entry;
+        }
+
+        void query(BundleListener listener) {
+            long lastIndex = this.entry.queryIndex();
+            QueryParams queryParams = lastIndex < 0 ? QueryParams.DEFAULT
+                    : new QueryParams(properties.getWatch().getWaitTime(), lastIndex);
+            // It will be blocked until watchTimeout(s) if no bundle under the prefix has been updated.
+            logger.debug("[ConsulConfigMessage] watch {} config properties prefix", basename);
+            Response<List<GetValue>> response = consul.getKVValues(basename, properties.getAclToken(), queryParams);
+            if (response == null) {
+                return;
+            }
+            // Only the bookkeeping is locked, against a concurrent watchCycle(): a monitor held during the
+            // blocking query would pin the carrier of the virtual thread for the whole wait time.
+            synchronized (this) {
+                apply(listener, response, lastIndex);
+            }
+        }
+
+        private void apply(BundleListener listener, Response<List<GetValue>> response, long lastIndex) {
+            ConsulWatchRegistry.Advance advance = this.entry.advance(response.getConsulIndex());
+            if (advance == ConsulWatchRegistry.Advance.UNCHANGED) {
+                logger.debug("[ConsulConfigMessage] {} config properties no update", basename);
+                return;
+            }
+            boolean reset = advance == ConsulWatchRegistry.Advance.RESET;
+            if (reset) {
+                // Modify indexes cannot be compared across the reset, reload every requested bundle.
+                logger.warn("[ConsulConfigMessage] {} prefix index went backwards ({} -> {}), watch reset",
+                        basename, lastIndex, this.entry.getIndex());
+                this.modifyIndexes.clear();
+            }
+            List<GetValue> values = response.getValue() != null ? response.getValue() : Collections.emptyList();
+            Set<String> present = new HashSet<>();
+            for (GetValue getValue : values) {
+                String key = getValue.getKey();
+                if (!ConfigBackendMessageSource.isBundleKey(basename, key)) {
+                    continue;
+                }
+                present.add(key);
+                // Only bundles that have been requested are (re)loaded, the others stay lazy.
+                ConsulWatchRegistry.Entry keyEntry = registry.getKey(key);
+                if (keyEntry == null) {
+                    continue;
+                }
+                listener.bundleConfirmed(key);
+                long modifyIndex = getValue.getModifyIndex();
+                Long lastModifyIndex = this.modifyIndexes.put(key, modifyIndex);
+                // First sight of the key: changed if it was modified after it was fetched.
+                boolean changed = reset || (lastModifyIndex != null ? lastModifyIndex != modifyIndex
+                        : modifyIndex > keyEntry.getIndex());
+                if (changed) {
+                    logger.info("[ConsulConfigMessage] {} modified ({} - {})", key, lastModifyIndex, modifyIndex);
+                    keyEntry.fetched(modifyIndex);
+                    listener.bundleChanged(content(key, getValue, modifyIndex));
+                }
+            }
+            this.modifyIndexes.keySet().retainAll(present);
+            for (ConsulWatchRegistry.Entry keyEntry : registry.keyEntries()) {
+                String key = keyEntry.getName();
+                // Keys fetched after this response are not in it, whether they exist or not.
+                if (keyEntry.getIndex() >= 0 && keyEntry.getIndex() <= this.entry.getIndex() && !present.contains(key)
+                        && ConfigBackendMessageSource.isBundleKey(basename, key)) {
+                    logger.info("[ConsulConfigMessage] {} deleted", key);
+                    keyEntry.fetched(-1);
+                    listener.bundleDeleted(key);
+                }
+            }
+        }
+    }
+
+    private BundleContent content(String key, GetValue getValue, @Nullable Long index) {
+        return new BundleContent(key, getValue.getDecodedValue(i18nProperties.getEncoding()), version(index));
+    }
+
+    @Nullable
+    private static String version(@Nullable Long index) {
+        return index != null ? String.valueOf(index) : null;
+    }
+
+    private static long index(@Nullable String version) {
+        try {
+            return version != null ? Long.parseLong(version) : -1L;
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Consul index and watch of every watched key or prefix, safe to update from request threads while the
+ * watches run. Indexes follow the rules Consul documents for blocking queries: an index that goes
+ * backwards (e.g. after a snapshot restore or a leader change) resets the watch instead of hiding the
+ * updates forever, and an index below 1 is clamped to 1.
+ */
+class ConsulWatchRegistry {
+
+    /**
+     * Outcome of a blocking query for a watched entry.
+     */
+    enum Advance {
+        /** Same index, nothing changed. */
+        UNCHANGED,
+        /** Index moved forward. */
+        CHANGED,
+        /** Index went backwards, the entry must be treated as changed whatever its previous index. */
+        RESET
+    }
+
+    static final class Entry {
+
+        private final String name;
+
+        private final boolean prefix;
+
+        /** {@code -1} while unknown, such as for a missing key. */
+        private volatile long index;
+
+        private volatile long resets;
+
+        @Nullable
+        private volatile WatchEngine.Watch watch;
+
+        private Entry(String name, boolean prefix, long index) {
+            this.name = name;
+            this.prefix = prefix;
+            this.index = index;
+        }
+
+        String getName() {
+            return this.name;
+        }
+
+        long getIndex() {
+            return this.index;
+        }
+
+        /**
+         * Index to send with the next blocking query, {@code -1} for a non-blocking query.
+         */
+        long queryIndex() {
+            return this.index < 0 ? -1 : Math.max(1, this.index);
+        }
+
+        synchronized void fetched(long index) {
+            this.index = index < 0 ? -1 : Math.max(1, index);
+        }
+
+        synchronized Advance advance(@Nullable Long currentIndex) {
+            if (currentIndex == null) {
+                return Advance.UNCHANGED;
+            }
+            long current = Math.max(1, currentIndex);
+            long last = this.index;
+            if (current == last) {
+                return Advance.UNCHANGED;
+            }
+            this.index = current;
+            if (last >= 0 && current < last) {
+                this.resets++;
+                return Advance.RESET;
+            }
+            return Advance.CHANGED;
+        }
+
+        ConsulWatchState state() {
+            WatchEngine.Watch watch = this.watch;
+            return new ConsulWatchState(this.name, this.prefix, this.index, watch != null,
+                    watch != null ? watch.getLastSuccess() : 0, watch != null ? watch.getFailures() : 0,
+                    watch != null ? watch.getBackoffMs() : 0, watch != null ? watch.getLastError() : null, this.resets);
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> keys = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Entry> prefixes = new ConcurrentHashMap<>();
+
+    private final int maxMissingKeys;
+
+    ConsulWatchRegistry(int maxMissingKeys) {
+        this.maxMissingKeys = maxMissingKeys;
+    }
+
+    /**
+     * Track a key fetched at the given index; a key fetched again, e.g. by the {@code delayMs} re-check,
+     * takes the index of the new fetch.
+     */
+    Entry trackKey(String key, long index) {
+        Entry entry = this.keys.computeIfAbsent(key, k -> new Entry(k, false, index));
+        entry.fetched(index);
+        return entry;
+    }
+
+    /**
+     * Track a key that does not exist yet, within the bound on missing keys.
+     * @return {@code null} if the bound is reached
+     */
+    @Nullable
+    Entry trackMissingKey(String key) {
+        Entry entry = this.keys.get(key);
+        if (entry == null && this.keys.size() < this.maxMissingKeys) {
+            entry = this.keys.computeIfAbsent(key, k -> new Entry(k, false, -1));
+        }
+        return entry;
+    }
+
+    Entry trackPrefix(String prefix) {
+        return this.prefixes.computeIfAbsent(prefix, p -> new Entry(p, true, -1));
+    }
+
+    @Nullable
+    Entry getKey(String key) {
+        return this.keys.get(key);
+    }
+
+    Iterable<Entry> keyEntries() {
+        return this.keys.values();
+    }
+
+    Iterable<Entry> prefixEntries() {
+        return this.prefixes.values();
+    }
+
+    /**
+     * Start the watch of an entry unless it is already watched.
+     */
+    void attachIfAbsent(Entry entry, Supplier<WatchEngine.Watch> watch) {
+        synchronized (entry) {
+            if (entry.watch == null) {
+                entry.watch = watch.get();
+            }
+        }
+    }
+
+    /**
+     * Forget the running watches, the indexes are kept for the next start.
+     */
+    void detachAll() {
+        for (Entry entry : this.keys.values()) {
+            entry.watch = null;
+        }
+        for (Entry entry : this.prefixes.values()) {
+            entry.watch = null;
+        }
+    }
+
+    List<ConsulWatchState> states() {
+        List<ConsulWatchState> states = new ArrayList<>(this.prefixes.size() + this.keys.size());
+        for (Entry entry : this.prefixes.values()) {
+            states.add(entry.state());
+        }
+        for (Entry entry : this.keys.values()) {
+            states.add(entry.state());
+        }
+        return states;
+    }
+}
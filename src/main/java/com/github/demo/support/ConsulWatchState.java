@@ -0,0 +1,106 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Immutable snapshot of the watch of a Consul key, or of a basename prefix in {@code PREFIX} mode.
+ */
+public final class ConsulWatchState {
+
+    private final String name;
+
+    private final boolean prefix;
+
+    private final long index;
+
+    private final boolean watching;
+
+    private final long lastSuccess;
+
+    private final int errorCount;
+
+    private final long backoffMs;
+
+    private final String lastError;
+
+    private final long resetCount;
+
+    ConsulWatchState(String name, boolean prefix, long index, boolean watching, long lastSuccess,
+                     int errorCount, long backoffMs, @Nullable String lastError, long resetCount) {
+        this.name = name;
+        this.prefix = prefix;
+        this.index = index;
+        this.watching = watching;
+        this.lastSuccess = lastSuccess;
+        this.errorCount = errorCount;
+        this.backoffMs = backoffMs;
+        this.lastError = lastError;
+        this.resetCount = resetCount;
+    }
+
+    /**
+     * Key, or basename prefix.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public boolean isPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Consul index the next blocking query waits on, {@code -1} while unknown.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Whether a watch is currently running for this entry.
+     */
+    public boolean isWatching() {
+        return watching;
+    }
+
+    /**
+     * Time of the last successful query in milliseconds, {@code 0} if none yet.
+     */
+    public long getLastSuccess() {
+        return lastSuccess;
+    }
+
+    /**
+     * Consecutive failed queries.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Delay before the next attempt after a failure, {@code 0} while healthy.
+     */
+    public long getBackoffMs() {
+        return backoffMs;
+    }
+
+    @Nullable
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Number of times the index went backwards and the watch was reset.
+     */
+    public long getResetCount() {
+        return resetCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsulWatchState{" + (prefix ? "prefix=" : "key=") + name + ", index=" + index
+                + ", watching=" + watching + ", lastSuccess=" + lastSuccess + ", errors=" + errorCount
+                + ", backoffMs=" + backoffMs + ", resets=" + resetCount
+                + (lastError != null ? ", lastError=" + lastError : "") + '}';
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.demo.support;
+
+import com.github.demo.context.FileMessageSourceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Local filesystem backend: the bundle {@code basename_zh_CN} is the file {@code basename_zh_CN.properties}
+ * under the configured directory. The directories of the watched files are registered with a
+ * {@link WatchService}, so a saved file is reloaded at once, without polling.
+ */
+public class FileConfigBackend implements ConfigBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileConfigBackend.class);
+
+    private static final String SUFFIX = ".properties";
+
+    private final Path directory;
+
+    private final Charset encoding;
+
+    private final boolean watchEnabled;
+
+    /** Missing files watched at most, found ones are unwatched when their bundle is evicted. */
+    private final int maxListeners;
+
+    private final ConcurrentMap<String, BundleListener> listeners = new ConcurrentHashMap<>();
+
+    /** Directories of the watched files, registered with the watch service once started. */
+    private final Set<Path> watchedDirectories = ConcurrentHashMap.newKeySet();
+
+    private WatchService watchService;
+
+    public FileConfigBackend(FileMessageSourceProperties i18nProperties) {
+        this.directory = Paths.get(i18nProperties.getDirectory()).toAbsolutePath().normalize();
+        this.encoding = i18nProperties.getEncoding();
+        this.watchEnabled = i18nProperties.isWatch();
+        this.maxListeners = i18nProperties.getCacheMaxBundles();
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public BundleContent fetch(String key) {
+        Path file = resolve(key);
+        try {
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            return read(key, file);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read " + file, ex);
+        }
+    }
+
+    @Override
+    public Map<String, BundleContent> list(String prefix) {
+        Path path = this.directory.resolve(prefix).normalize();
+        Path dir = path.getParent();
+        String namePrefix = path.getFileName().toString();
+        Map<String, BundleContent> bundles = new LinkedHashMap<>();
+        if (!Files.isDirectory(dir)) {
+            return bundles;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.sorted().forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(namePrefix) && name.endsWith(SUFFIX) && Files.isRegularFile(file)) {
+                    String key = toKey(file);
+                    try {
+                        bundles.put(key, read(key, file));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException("Failed to read " + file, ex);
+                    }
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to list " + dir, ex);
+        }
+        return bundles;
+    }
+
+    @Override
+    public void watch(String key, @Nullable BundleContent content, BundleListener listener) {
+        if (!this.watchEnabled) {
+            return;
+        }
+        if (content == null && this.maxListeners > 0 && this.listeners.size() >= this.maxListeners
+                && !this.listeners.containsKey(key)) {
+            // Re-checked in background instead, as when not watched.
+            return;
+        }
+        this.listeners.put(key, listener);
+        Path dir = resolve(key).getParent();
+        if (this.watchedDirectories.add(dir)) {
+            synchronized (this) {
+                if (this.watchService != null) {
+                    register(dir);
+                }
+            }
+        }
+    }
+
+    /**
+     * Versions are modification times.
+     */
+    @Override
+    public boolean isOlder(@Nullable String version, @Nullable String cachedVersion) {
+        return BundleContent.isLowerNumber(version, cachedVersion);
+    }
+
+    @Override
+    public void unwatch(String key) {
+        this.listeners.remove(key);
+    }
+
+    /**
+     * The directory of a watched file is watched, so its creation is seen as well.
+     */
+    @Override
+    public synchronized boolean isWatching(String key) {
+        return this.watchService != null && this.listeners.containsKey(key) && Files.isDirectory(resolve(key).getParent());
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!this.watchEnabled || this.watchService != null) {
+            return;
+        }
+        try {
+            this.watchService = this.directory.getFileSystem().newWatchService();
+        } catch (IOException ex) {
+            logger.warn("[FileConfigMessage] cannot watch {}, changes will not be reloaded", this.directory, ex);
+            return;
+        }
+        // Missing bundles may be created later in the base directory.
+        this.watchedDirectories.add(this.directory);
+        for (Path dir : this.watchedDirectories) {
+            register(dir);
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("i18n-file-watcher-");
+        threadFactory.setDaemon(true);
+        WatchService service = this.watchService;
+        threadFactory.newThread(() -> watchLoop(service)).start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (this.watchService != null) {
+            try {
+                this.watchService.close();
+            } catch (IOException ex) {
+                logger.debug("[FileConfigMessage] failed to close the watch service", ex);
+            }
+            this.watchService = null;
+        }
+    }
+
+    private void register(Path dir) {
+        try {
+            if (Files.isDirectory(dir)) {
+                dir.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException ex) {
+            logger.warn("[FileConfigMessage] cannot watch {}", dir, ex);
+        }
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey watchKey = service.take();
+                Path dir = (Path) watchKey.watchable();
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, reload every watched file of the directory.
+                        this.listeners.keySet().stream()
+                                .filter(key -> resolve(key).getParent().equals(dir))
+                                .forEach(this::reload);
+                    } else {
+                        String name = event.context().toString();
+                        if (name.endsWith(SUFFIX)) {
+                            reload(toKey(dir.resolve(name)));
+                        }
+                    }
+                }
+                watchKey.reset();
+            }
+        } catch (ClosedWatchServiceException ex) {
+            // stopped
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reload(String key) {
+        BundleListener listener = this.listeners.get(key);
+        if (listener == null) {
+            return;
+        }
+        try {
+            BundleContent content = fetch(key);
+            if (content != null && content.getContent() != null && !content.getContent().isEmpty()) {
+                listener.bundleChanged(content);
+            }
+        } catch (RuntimeException ex) {
+            // A file may be caught while it is being written, the next event reloads it.
+            logger.warn("[FileConfigMessage] failed to reload {}", key, ex);
+        }
+    }
+
+    private BundleContent read(String key, Path file) throws IOException {
+        String content = new String(Files.readAllBytes(file), this.encoding);
+        return new BundleContent(key, content, String.valueOf(Files.getLastModifiedTime(file).toMillis()));
+    }
+
+    private Path resolve(String key) {
+        return this.directory.resolve(key + SUFFIX).normalize();
+    }
+
+    private String toKey(Path file) {
+        String relative = this.directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+        return relative.substring(0, relative.length() - SUFFIX.length());
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.demo.support;
+
+import com.github.demo.context.FileMessageSourceProperties;
+
+/**
+ * Message source reading {@code basename_locale.properties} files from a local directory.
+ */
+public class FileConfigMessageSource extends ConfigBackendMessageSource {
+
+    public FileConfigMessageSource(FileMessageSourceProperties i18nProperties) {
+        super(i18nProperties, new FileConfigBackend(i18nProperties));
+    }
+}
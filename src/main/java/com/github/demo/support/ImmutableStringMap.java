@@ -0,0 +1,94 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only open-addressing hash table keyed by {@link String}.
+ * Lookups take no lock and, for a hit, usually a single probe.
+ */
+final class ImmutableStringMap<V> {
+
+    private static final ImmutableStringMap<?> EMPTY = new ImmutableStringMap<>(new String[1], new Object[1], new int[1], 0);
+
+    private final String[] keys;
+
+    private final Object[] values;
+
+    private final int[] hashes;
+
+    private final int mask;
+
+    private final int size;
+
+    private ImmutableStringMap(String[] keys, Object[] values, int[] hashes, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.hashes = hashes;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> ImmutableStringMap<V> empty() {
+        return (ImmutableStringMap<V>) EMPTY;
+    }
+
+    static <V> ImmutableStringMap<V> copyOf(Map<String, ? extends V> source) {
+        if (source.isEmpty()) {
+            return empty();
+        }
+        // Keep the load factor at or below 0.5 so probe sequences stay short.
+        int capacity = Integer.highestOneBit(Math.max(2, source.size()) * 2 - 1) << 1;
+        String[] keys = new String[capacity];
+        Object[] values = new Object[capacity];
+        int[] hashes = new int[capacity];
+        int mask = capacity - 1;
+        for (Map.Entry<String, ? extends V> entry : source.entrySet()) {
+            String key = entry.getKey();
+            int hash = spread(key.hashCode());
+            int index = hash & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = entry.getValue();
+            hashes[index] = hash;
+        }
+        return new ImmutableStringMap<>(keys, values, hashes, source.size());
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V get(String key) {
+        int hash = spread(key.hashCode());
+        int index = hash & this.mask;
+        String candidate;
+        while ((candidate = this.keys[index]) != null) {
+            if (this.hashes[index] == hash && candidate.equals(key)) {
+                return (V) this.values[index];
+            }
+            index = (index + 1) & this.mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<String, ? super V> action) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != null) {
+                action.accept(this.keys[i], (V) this.values[i]);
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bundles held in memory, for tests and for applications that ship or build their messages themselves.
+ * Listeners are notified synchronously from {@link #put}.
+ */
+public class InMemoryConfigBackend implements ConfigBackend {
+
+    private final ConcurrentMap<String, BundleContent> bundles = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, BundleListener> listeners = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    /**
+     * Create or replace a bundle.
+     * @param content properties document
+     */
+    public void put(String key, String content) {
+        BundleContent bundle = new BundleContent(key, content, String.valueOf(this.version.incrementAndGet()));
+        this.bundles.put(key, bundle);
+        BundleListener listener = this.listeners.get(key);
+        if (listener != null) {
+            listener.bundleChanged(bundle);
+        }
+    }
+
+    /**
+     * Remove a bundle. Messages already loaded stay cached, as with the remote backends.
+     */
+    public void remove(String key) {
+        this.bundles.remove(key);
+    }
+
+    @Override
+    public BundleContent fetch(String key) {
+        return this.bundles.get(key);
+    }
+
+    @Override
+    public Map<String, BundleContent> list(String prefix) {
+        Map<String, BundleContent> result = new LinkedHashMap<>();
+        this.bundles.forEach((key, bundle) -> {
+            if (key.startsWith(prefix)) {
+                result.put(key, bundle);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void watch(String key, @Nullable BundleContent content, BundleListener listener) {
+        this.listeners.put(key, listener);
+    }
+
+    @Override
+    public boolean isOlder(@Nullable String version, @Nullable String cachedVersion) {
+        return BundleContent.isLowerNumber(version, cachedVersion);
+    }
+
+    @Override
+    public void unwatch(String key) {
+        this.listeners.remove(key);
+    }
+
+    @Override
+    public boolean isWatching(String key) {
+        return this.listeners.containsKey(key);
+    }
+}
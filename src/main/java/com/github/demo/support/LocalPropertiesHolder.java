@@ -1,46 +1,182 @@
 package com.github.demo.support;
 
+import com.github.demo.context.BundleStorage;
 import org.springframework.lang.Nullable;
 
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 
 public class LocalPropertiesHolder {
+    /** Size of the decoded message cache of off-heap bundles. */
+    private static final int HOT_ENTRIES = 1024;
+
+    /** Frozen copy of the parsed properties, read without any lock. */
+    @Nullable
+    private final MessageStore messages;
+
+    /** Version of the remote content, such as the Consul index or Nacos MD5. */
     @Nullable
-    private final Properties properties;
+    private final String version;
+
+    /** Lazily built {@link Properties} view, kept for compatibility. */
+    @Nullable
+    private volatile Properties properties;
 
     /** Cache to hold already generated MessageFormats per message code. */
-    private final ConcurrentMap<String, Map<Locale, MessageFormat>> cachedMessageFormats =
-            new ConcurrentHashMap<>();
+    private final BoundedCache<String, Map<Locale, MessageFormat>> cachedMessageFormats;
+
+    /** Cache to hold already compiled MessageTemplates per message code. */
+    private final BoundedCache<String, MessageTemplate> cachedMessageTemplates;
 
     public LocalPropertiesHolder() {
-        this.properties = null;
+        this.messages = null;
+        this.version = null;
+        this.cachedMessageFormats = new BoundedCache<>(0);
+        this.cachedMessageTemplates = new BoundedCache<>(0);
     }
 
     public LocalPropertiesHolder(Properties properties) {
-        this.properties = properties;
+        this(properties, null, null);
+    }
+
+    public LocalPropertiesHolder(Properties properties, @Nullable LocalPropertiesHolder previous) {
+        this(properties, previous, null);
+    }
+
+    public LocalPropertiesHolder(Properties properties, @Nullable LocalPropertiesHolder previous, @Nullable String version) {
+        this(properties, previous, version, BundleStorage.HEAP);
+    }
+
+    /**
+     * Create a holder for reloaded properties, carrying over the compiled formats of every code whose
+     * message is unchanged since the {@code previous} holder.
+     */
+    public LocalPropertiesHolder(Properties properties, @Nullable LocalPropertiesHolder previous, @Nullable String version,
+                                 BundleStorage storage) {
+        this(properties, previous, version, storage, 0);
+    }
+
+    /**
+     * @param maxCachedFormats maximum number of codes whose compiled formats are cached, {@code <= 0} for no limit
+     */
+    public LocalPropertiesHolder(Properties properties, @Nullable LocalPropertiesHolder previous, @Nullable String version,
+                                 BundleStorage storage, int maxCachedFormats) {
+        this(toMap(properties), previous, version, storage, maxCachedFormats);
+    }
+
+    /**
+     * Create a holder from already parsed messages, which are copied into the bundle storage.
+     */
+    LocalPropertiesHolder(Map<String, String> messages, @Nullable LocalPropertiesHolder previous, @Nullable String version,
+                          BundleStorage storage, int maxCachedFormats) {
+        this.messages = storage == BundleStorage.OFF_HEAP
+                ? CompactMessageStore.copyOf(messages, HOT_ENTRIES) : MessageStore.onHeap(messages);
+        this.version = version;
+        this.cachedMessageFormats = new BoundedCache<>(maxCachedFormats);
+        this.cachedMessageTemplates = new BoundedCache<>(maxCachedFormats);
+        if (previous != null) {
+            previous.cachedMessageFormats.forEach((code, formats) -> {
+                if (isUnchanged(previous, code)) {
+                    this.cachedMessageFormats.put(code, formats);
+                }
+            });
+            previous.cachedMessageTemplates.forEach((code, template) -> {
+                if (isUnchanged(previous, code)) {
+                    this.cachedMessageTemplates.put(code, template);
+                }
+            });
+        }
+    }
+
+    private static Map<String, String> toMap(Properties properties) {
+        Map<String, String> copy = new HashMap<>(properties.size() * 4 / 3 + 1);
+        for (String code : properties.stringPropertyNames()) {
+            copy.put(code, properties.getProperty(code));
+        }
+        return copy;
+    }
+
+    private boolean isUnchanged(LocalPropertiesHolder previous, String code) {
+        String msg = getProperty(code);
+        return msg != null && msg.equals(previous.getProperty(code));
+    }
+
+    /**
+     * Whether both holders contain exactly the same codes and messages.
+     */
+    public boolean hasSameMessages(LocalPropertiesHolder other) {
+        if (size() != other.size()) {
+            return false;
+        }
+        if (this.messages == null) {
+            return true;
+        }
+        boolean[] same = {true};
+        this.messages.forEach((code, msg) -> {
+            if (same[0] && !msg.equals(other.getProperty(code))) {
+                same[0] = false;
+            }
+        });
+        return same[0];
+    }
+
+    int cachedFormatCount() {
+        return this.cachedMessageFormats.size();
+    }
+
+    @Nullable
+    public String getVersion() {
+        return this.version;
     }
 
     @Nullable
     public Properties getProperties() {
-        return this.properties;
+        if (this.messages == null) {
+            return null;
+        }
+        Properties result = this.properties;
+        if (result == null) {
+            Properties props = new Properties();
+            this.messages.forEach(props::setProperty);
+            this.properties = result = props;
+        }
+        return result;
     }
 
     @Nullable
     public String getProperty(String code) {
-        if (this.properties == null) {
+        if (this.messages == null) {
             return null;
         }
-        return this.properties.getProperty(code);
+        return this.messages.get(code);
+    }
+
+    public void forEach(BiConsumer<String, String> action) {
+        if (this.messages != null) {
+            this.messages.forEach(action);
+        }
+    }
+
+    public int size() {
+        return this.messages != null ? this.messages.size() : 0;
+    }
+
+    /**
+     * Estimated heap retained by the messages, compiled formats excluded.
+     */
+    public long estimatedHeapBytes() {
+        return this.messages != null ? this.messages.estimatedHeapBytes() : 0;
     }
 
     @Nullable
     public MessageFormat getMessageFormat(String code, Locale locale) {
-        if (this.properties == null) {
+        if (this.messages == null) {
             return null;
         }
         Map<Locale, MessageFormat> localeMap = this.cachedMessageFormats.get(code);
@@ -50,7 +186,7 @@ public class LocalPropertiesHolder {
                 return result;
             }
         }
-        String msg = this.properties.getProperty(code);
+        String msg = this.messages.get(code);
         if (msg != null) {
             if (localeMap == null) {
                 localeMap = new ConcurrentHashMap<>();
@@ -65,4 +201,26 @@ public class LocalPropertiesHolder {
         }
         return null;
     }
+
+    /**
+     * @return the compiled template, {@link MessageTemplate#NOT_COMPILABLE} if the message needs a
+     * {@link MessageFormat}, or {@code null} if there is no such code
+     */
+    @Nullable
+    public MessageTemplate getMessageTemplate(String code) {
+        if (this.messages == null) {
+            return null;
+        }
+        MessageTemplate result = this.cachedMessageTemplates.get(code);
+        if (result != null) {
+            return result;
+        }
+        String msg = this.messages.get(code);
+        if (msg != null) {
+            result = MessageTemplate.compile(msg);
+            this.cachedMessageTemplates.putIfAbsent(code, result);
+            return result;
+        }
+        return null;
+    }
 }
@@ -0,0 +1,181 @@
+package com.github.demo.support;
+
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Every message of a locale, merged over its fallback chain and pre-serialized as a JSON object
+ * ({@code {"code":"message",...}}, sorted by code), both plain and gzip-compressed. The strong ETag is
+ * derived from the versions (Consul index, Nacos MD5) of the bundles of the chain.
+ * <p>
+ * Instances are immutable and shared; the returned byte arrays must not be modified.
+ */
+public final class LocaleBundleExport {
+
+    private final Locale locale;
+
+    private final List<String> filenames;
+
+    private final int messageCount;
+
+    private final byte[] json;
+
+    private final byte[] gzip;
+
+    private final String eTag;
+
+    private final String gzipETag;
+
+    private LocaleBundleExport(Locale locale, List<String> filenames, int messageCount, byte[] json, byte[] gzip,
+                               String eTag, String gzipETag) {
+        this.locale = locale;
+        this.filenames = filenames;
+        this.messageCount = messageCount;
+        this.json = json;
+        this.gzip = gzip;
+        this.eTag = eTag;
+        this.gzipETag = gzipETag;
+    }
+
+    static LocaleBundleExport build(Locale locale, List<String> filenames,
+                                    Function<String, LocalPropertiesHolder> bundles) {
+        Map<String, String> messages = new TreeMap<>();
+        StringBuilder versions = new StringBuilder(locale.toString());
+        boolean versioned = true;
+        for (String filename : filenames) {
+            LocalPropertiesHolder holder = bundles.apply(filename);
+            versions.append(';').append(filename).append('=');
+            if (holder == null) {
+                versions.append('-');
+                continue;
+            }
+            if (holder.getVersion() == null) {
+                versioned = false;
+            }
+            versions.append(holder.getVersion());
+            holder.forEach((code, message) -> {
+                if (!message.isEmpty()) {
+                    messages.putIfAbsent(code, message);
+                }
+            });
+        }
+        byte[] json = toJson(messages);
+        // Bundles without a remote version are identified by their content.
+        String tag = DigestUtils.md5DigestAsHex(versioned ? versions.toString().getBytes(StandardCharsets.UTF_8) : json);
+        return new LocaleBundleExport(locale, filenames, messages.size(), json, gzip(json),
+                '"' + tag + '"', '"' + tag + "-gzip\"");
+    }
+
+    private static byte[] toJson(Map<String, String> messages) {
+        StringBuilder out = new StringBuilder(messages.size() * 64 + 2);
+        out.append('{');
+        for (Map.Entry<String, String> entry : messages.entrySet()) {
+            if (out.length() > 1) {
+                out.append(',');
+            }
+            appendString(out, entry.getKey());
+            out.append(':');
+            appendString(out, entry.getValue());
+        }
+        return out.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    // Control characters, and line separators that break JavaScript string literals.
+                    if (ch < 0x20 || ch == '\u2028' || ch == '\u2029') {
+                        out.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        out.append(ch);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public Locale getLocale() {
+        return this.locale;
+    }
+
+    /**
+     * Bundles of the fallback chain, most specific first.
+     */
+    public List<String> getFilenames() {
+        return this.filenames;
+    }
+
+    public int getMessageCount() {
+        return this.messageCount;
+    }
+
+    /**
+     * UTF-8 encoded JSON object.
+     */
+    public byte[] getJson() {
+        return this.json;
+    }
+
+    /**
+     * Gzip-compressed {@link #getJson() JSON}.
+     */
+    public byte[] getGzip() {
+        return this.gzip;
+    }
+
+    /**
+     * Strong entity tag, quoted as in the {@code ETag} header.
+     */
+    public String getETag() {
+        return this.eTag;
+    }
+
+    /**
+     * Strong entity tag of the {@link #getGzip() gzip} representation.
+     */
+    public String getGzipETag() {
+        return this.gzipETag;
+    }
+
+    boolean dependsOn(String filename) {
+        return this.filenames.contains(filename);
+    }
+}
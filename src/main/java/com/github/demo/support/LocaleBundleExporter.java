@@ -0,0 +1,14 @@
+package com.github.demo.support;
+
+import java.util.Locale;
+
+/**
+ * Message source able to export every message of a locale at once, for front-end clients.
+ */
+public interface LocaleBundleExporter {
+
+    /**
+     * @return the pre-serialized messages of the locale, merged over its fallback chain
+     */
+    LocaleBundleExport exportMessages(Locale locale);
+}
@@ -0,0 +1,60 @@
+package com.github.demo.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Per-locale {@link LocaleBundleExport}s, built on first request and dropped whenever a bundle of their
+ * chain changes, so they are only serialized again after a reload.
+ */
+class LocaleBundleExports {
+
+    private final BoundedCache<Locale, LocaleBundleExport> exports;
+
+    private final Function<String, LocalPropertiesHolder> bundles;
+
+    /** Incremented on every change, so that exports built from older bundles are not cached. */
+    private long generation;
+
+    LocaleBundleExports(Function<String, LocalPropertiesHolder> bundles, int maxLocales) {
+        this.exports = new BoundedCache<>(maxLocales);
+        this.bundles = bundles;
+    }
+
+    LocaleBundleExport get(Locale locale, List<String> filenames) {
+        LocaleBundleExport export = this.exports.get(locale);
+        if (export != null) {
+            return export;
+        }
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = this.generation;
+        }
+        export = LocaleBundleExport.build(locale, filenames, this.bundles);
+        synchronized (this) {
+            if (this.generation == startGeneration) {
+                this.exports.put(locale, export);
+            }
+        }
+        return export;
+    }
+
+    synchronized void bundleChanged(String filename) {
+        this.generation++;
+        List<Locale> stale = new ArrayList<>();
+        this.exports.forEach((locale, export) -> {
+            if (export.dependsOn(filename)) {
+                stale.add(locale);
+            }
+        });
+        for (Locale locale : stale) {
+            this.exports.remove(locale);
+        }
+    }
+
+    CacheStats stats() {
+        return this.exports.stats();
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Maps any requested locale onto a small set of supported locales, so that caches keyed by locale
+ * (or by the bundle filenames derived from it) cannot grow with arbitrary {@code Accept-Language} values.
+ * A locale is reduced to its language and country, then to its language, before falling back.
+ */
+final class LocaleCanonicalizer {
+
+    private final Set<Locale> supportedLocales;
+
+    private LocaleCanonicalizer(Set<Locale> supportedLocales) {
+        this.supportedLocales = supportedLocales;
+    }
+
+    static LocaleCanonicalizer of(@Nullable Collection<Locale> supportedLocales) {
+        if (supportedLocales == null || supportedLocales.isEmpty()) {
+            return new LocaleCanonicalizer(Collections.emptySet());
+        }
+        return new LocaleCanonicalizer(Collections.unmodifiableSet(new HashSet<>(supportedLocales)));
+    }
+
+    boolean isEnabled() {
+        return !this.supportedLocales.isEmpty();
+    }
+
+    /**
+     * @param fallback locale to use when nothing matches, such as the default locale
+     * @return the given locale when no supported locale is configured
+     */
+    Locale canonicalize(Locale locale, @Nullable Locale fallback) {
+        if (this.supportedLocales.isEmpty() || this.supportedLocales.contains(locale)) {
+            return locale;
+        }
+        String language = locale.getLanguage();
+        String country = locale.getCountry();
+        if (!country.isEmpty()) {
+            Locale candidate = new Locale(language, country);
+            if (this.supportedLocales.contains(candidate)) {
+                return candidate;
+            }
+        }
+        if (!language.isEmpty()) {
+            Locale candidate = new Locale(language);
+            if (this.supportedLocales.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return fallback != null ? fallback : Locale.ROOT;
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Bundle chain of a locale, resolved once: the bundles of every basename in lookup order (or their merged
+ * tables with {@code flattened-lookup}), as cached when the chain was resolved. Lookups through a bound
+ * chain skip the filename computation and the cache lookups; bundles reloaded meanwhile are seen by the
+ * next chain, so a request reads consistent messages.
+ *
+ * @see ConfigBackendMessageSource#resolveChain(Locale, boolean)
+ * @see LocaleChainScope
+ */
+public final class LocaleChain {
+
+    /** Name of the request attribute, and key in the Reactor context, holding the chain of a request. */
+    public static final String CONTEXT_KEY = LocaleChain.class.getName();
+
+    final ConfigBackendMessageSource source;
+
+    final Locale locale;
+
+    /** Bundles in lookup order, {@code null} entries for missing ones; {@code null} when flattened. */
+    @Nullable
+    final LocalPropertiesHolder[] holders;
+
+    /** Merged table of each basename; {@code null} unless flattened. */
+    @Nullable
+    final MergedMessageTable[] tables;
+
+    LocaleChain(ConfigBackendMessageSource source, Locale locale,
+                @Nullable LocalPropertiesHolder[] holders, @Nullable MergedMessageTable[] tables) {
+        this.source = source;
+        this.locale = locale;
+        this.holders = holders;
+        this.tables = tables;
+    }
+
+    /**
+     * Canonical locale of the chain, the one its messages are formatted with.
+     */
+    public Locale getLocale() {
+        return this.locale;
+    }
+
+    public ConfigBackendMessageSource getMessageSource() {
+        return this.source;
+    }
+
+    @Override
+    public String toString() {
+        return "LocaleChain{" + this.locale + '}';
+    }
+}
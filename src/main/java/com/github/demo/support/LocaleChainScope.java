@@ -0,0 +1,99 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Locale chains bound to the current thread for the duration of a request. Within an open scope, the first
+ * lookup of a locale resolves its {@link LocaleChain} and the following ones reuse it.
+ * <pre>
+ * LocaleChainScope previous = LocaleChainScope.open(true);
+ * try {
+ *     ...
+ * } finally {
+ *     LocaleChainScope.restore(previous);
+ * }
+ * </pre>
+ */
+public final class LocaleChainScope {
+
+    /** Chains kept per scope, requests resolving more locales fall back to the regular lookups. */
+    static final int MAX_CHAINS = 4;
+
+    private static final ThreadLocal<LocaleChainScope> CURRENT = new ThreadLocal<>();
+
+    private final boolean blocking;
+
+    private final LocaleChain[] chains = new LocaleChain[MAX_CHAINS];
+
+    private int size;
+
+    private LocaleChainScope(boolean blocking) {
+        this.blocking = blocking;
+    }
+
+    /**
+     * Open a scope on the current thread.
+     * @param blocking whether a missing bundle may be fetched inline; otherwise it is fetched in background
+     * and the chain falls through to the next bundle
+     * @return the scope previously bound, to pass to {@link #restore}
+     */
+    @Nullable
+    public static LocaleChainScope open(boolean blocking) {
+        LocaleChainScope previous = CURRENT.get();
+        CURRENT.set(new LocaleChainScope(blocking));
+        return previous;
+    }
+
+    /**
+     * Open a non-blocking scope holding an already resolved chain.
+     * @return the scope previously bound, to pass to {@link #restore}
+     */
+    @Nullable
+    public static LocaleChainScope open(LocaleChain chain) {
+        LocaleChainScope previous = CURRENT.get();
+        LocaleChainScope scope = new LocaleChainScope(false);
+        scope.add(chain);
+        CURRENT.set(scope);
+        return previous;
+    }
+
+    public static void restore(@Nullable LocaleChainScope previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    @Nullable
+    static LocaleChainScope current() {
+        return CURRENT.get();
+    }
+
+    boolean isBlocking() {
+        return this.blocking;
+    }
+
+    @Nullable
+    LocaleChain get(ConfigBackendMessageSource source, Locale locale) {
+        for (int i = 0; i < this.size; i++) {
+            LocaleChain chain = this.chains[i];
+            if (chain.source == source && chain.locale.equals(locale)) {
+                return chain;
+            }
+        }
+        return null;
+    }
+
+    boolean isFull() {
+        return this.size == MAX_CHAINS;
+    }
+
+    void add(LocaleChain chain) {
+        if (this.size < MAX_CHAINS) {
+            this.chains[this.size++] = chain;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable {@code code -> message} table of one locale, pre-merged from its whole fallback chain
+ * ({@code messages_zh_CN -> messages_zh -> default locale -> messages}). Empty messages are treated as missing.
+ */
+final class MergedMessageTable {
+
+    private final Locale locale;
+
+    private final List<String> filenames;
+
+    private final ImmutableStringMap<Entry> entries;
+
+    /** Filenames of the chain that were not loaded when the table was merged. */
+    private final String[] missingFilenames;
+
+    private MergedMessageTable(Locale locale, List<String> filenames, ImmutableStringMap<Entry> entries,
+                               String[] missingFilenames) {
+        this.locale = locale;
+        this.filenames = filenames;
+        this.entries = entries;
+        this.missingFilenames = missingFilenames;
+    }
+
+    static MergedMessageTable merge(Locale locale, List<String> filenames,
+                                    Function<String, LocalPropertiesHolder> bundles) {
+        Map<String, Entry> merged = new HashMap<>();
+        List<String> missing = new ArrayList<>(0);
+        for (String filename : filenames) {
+            LocalPropertiesHolder holder = bundles.apply(filename);
+            if (holder == null) {
+                // Rebuilt through bundleChanged once the bundle is loaded.
+                missing.add(filename);
+                continue;
+            }
+            holder.forEach((code, message) -> {
+                if (!StringUtils.isEmpty(message) && !merged.containsKey(code)) {
+                    merged.put(code, new Entry(code, message, holder, locale));
+                }
+            });
+        }
+        return new MergedMessageTable(locale, filenames, ImmutableStringMap.copyOf(merged),
+                missing.toArray(new String[0]));
+    }
+
+    @Nullable
+    String getMessage(String code) {
+        Entry entry = this.entries.get(code);
+        return entry != null ? entry.message : null;
+    }
+
+    @Nullable
+    MessageFormat getMessageFormat(String code) {
+        Entry entry = this.entries.get(code);
+        return entry != null ? entry.getMessageFormat() : null;
+    }
+
+    @Nullable
+    MessageTemplate getMessageTemplate(String code) {
+        Entry entry = this.entries.get(code);
+        return entry != null ? entry.holder.getMessageTemplate(code) : null;
+    }
+
+    Locale getLocale() {
+        return this.locale;
+    }
+
+    List<String> getFilenames() {
+        return this.filenames;
+    }
+
+    /**
+     * Filenames of the chain left out of the table because they were not loaded when it was merged.
+     */
+    String[] getMissingFilenames() {
+        return this.missingFilenames;
+    }
+
+    boolean dependsOn(String filename) {
+        return this.filenames.contains(filename);
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    private static final class Entry {
+
+        private final String code;
+
+        private final String message;
+
+        private final LocalPropertiesHolder holder;
+
+        private final Locale locale;
+
+        private volatile MessageFormat messageFormat;
+
+        Entry(String code, String message, LocalPropertiesHolder holder, Locale locale) {
+            this.code = code;
+            this.message = message;
+            this.holder = holder;
+            this.locale = locale;
+        }
+
+        MessageFormat getMessageFormat() {
+            MessageFormat result = this.messageFormat;
+            if (result == null) {
+                // Shares the holder's cached instance, which outlives table rebuilds.
+                result = this.holder.getMessageFormat(this.code, this.locale);
+                this.messageFormat = result;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Per-locale {@link MergedMessageTable}s published through a single volatile, copy-on-write map.
+ * Readers never lock; writers rebuild every table that depends on a changed bundle. At most
+ * {@code maxTables} locales are kept, the oldest built table is dropped first.
+ */
+class MergedMessageTables {
+
+    private volatile Map<Locale, MergedMessageTable> tables = Collections.emptyMap();
+
+    private final Function<String, LocalPropertiesHolder> bundles;
+
+    private final int maxTables;
+
+    MergedMessageTables(Function<String, LocalPropertiesHolder> bundles) {
+        this(bundles, 0);
+    }
+
+    /**
+     * @param maxTables maximum number of cached locales, {@code <= 0} for no limit
+     */
+    MergedMessageTables(Function<String, LocalPropertiesHolder> bundles, int maxTables) {
+        this.bundles = bundles;
+        this.maxTables = maxTables;
+    }
+
+    @Nullable
+    MergedMessageTable get(Locale locale) {
+        return this.tables.get(locale);
+    }
+
+    synchronized MergedMessageTable build(Locale locale, List<String> filenames) {
+        MergedMessageTable table = MergedMessageTable.merge(locale, filenames, this.bundles);
+        Map<Locale, MergedMessageTable> copy = new LinkedHashMap<>(this.tables);
+        copy.remove(locale);
+        copy.put(locale, table);
+        Iterator<Locale> eldest = copy.keySet().iterator();
+        while (this.maxTables > 0 && copy.size() > this.maxTables) {
+            eldest.next();
+            eldest.remove();
+        }
+        this.tables = copy;
+        return table;
+    }
+
+    synchronized void bundleChanged(String filename) {
+        Map<Locale, MergedMessageTable> copy = null;
+        for (MergedMessageTable table : this.tables.values()) {
+            if (table.dependsOn(filename)) {
+                if (copy == null) {
+                    copy = new LinkedHashMap<>(this.tables);
+                }
+                copy.put(table.getLocale(), MergedMessageTable.merge(table.getLocale(), table.getFilenames(), this.bundles));
+            }
+        }
+        if (copy != null) {
+            this.tables = copy;
+        }
+    }
+
+    synchronized void clear() {
+        this.tables = Collections.emptyMap();
+    }
+}
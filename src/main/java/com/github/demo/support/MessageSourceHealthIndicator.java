@@ -0,0 +1,32 @@
+package com.github.demo.support;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+/**
+ * Reports {@code OUT_OF_SERVICE} while the startup preload is running, including after the preload timeout,
+ * so that the pod is not ready before its bundles are cached. Add {@code i18n} to the readiness group:
+ * <pre>
+ * management.endpoint.health.group.readiness.include=readinessState,i18n
+ * </pre>
+ */
+public class MessageSourceHealthIndicator extends AbstractHealthIndicator {
+
+    private final ConfigBackendMessageSource messageSource;
+
+    public MessageSourceHealthIndicator(ConfigBackendMessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (this.messageSource.isPreloading()) {
+            builder.outOfService();
+        } else {
+            builder.up();
+        }
+        builder.withDetail("backend", this.messageSource.getBackend().getName())
+                .withDetail("preloaded", this.messageSource.isPreloaded())
+                .withDetail("bundles", this.messageSource.getCacheStats().get("bundles").getSize());
+    }
+}
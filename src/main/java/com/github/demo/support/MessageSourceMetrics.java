@@ -0,0 +1,72 @@
+package com.github.demo.support;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Instrumentation callbacks of the message sources. All methods are no-ops by default.
+ */
+public interface MessageSourceMetrics {
+
+    MessageSourceMetrics NOOP = new MessageSourceMetrics() {
+    };
+
+    /** Depth reported when a code is resolved from a pre-merged table. */
+    int MERGED = -1;
+
+    /** Depth reported when a code is not found in any bundle. */
+    int NOT_FOUND = -2;
+
+    enum CacheResult {
+        /** The bundle was cached. */
+        HIT,
+        /** The bundle had to be fetched. */
+        MISS,
+        /** The bundle is known to be missing and is not fetched again yet. */
+        NEGATIVE_HIT
+    }
+
+    default boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * @param depth position in the locale fallback chain of the bundle that had the code,
+     *              {@link #MERGED} or {@link #NOT_FOUND}
+     */
+    default void recordResolve(Locale locale, int depth, long nanos) {
+    }
+
+    default void recordBundleCache(CacheResult result) {
+    }
+
+    /** Duration of a whole bundle load, remote fetch and parsing included. */
+    default void recordLoad(long nanos, boolean found) {
+    }
+
+    /** Duration of the remote request of a bundle load. */
+    default void recordRemoteFetch(long nanos) {
+    }
+
+    default void recordWatchCycle(long nanos) {
+    }
+
+    /**
+     * Expose the bundles of a message source.
+     * @param bundles the cached bundles by filename
+     * @param syncTimes time of the last remote confirmation of each bundle, in epoch millis
+     */
+    default void bindBundles(Map<String, LocalPropertiesHolder> bundles, Map<String, Long> syncTimes) {
+    }
+
+    /** Called whenever a bundle is (re)loaded. */
+    default void bundleLoaded(String filename) {
+    }
+
+    /**
+     * Expose the statistics of a bounded cache of a message source.
+     */
+    default void bindCache(String name, Supplier<CacheStats> stats) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only storage of the {@code code -> message} entries of one bundle.
+ */
+interface MessageStore {
+
+    @Nullable
+    String get(String code);
+
+    int size();
+
+    void forEach(BiConsumer<String, String> action);
+
+    /**
+     * Rough estimate of the heap retained by the entries: two {@code String}s and a table slot per entry.
+     */
+    default long estimatedHeapBytes() {
+        long[] total = {0};
+        forEach((code, msg) -> total[0] += 2 * 56 + 2L * (code.length() + msg.length()) + 12);
+        return total[0];
+    }
+
+    static MessageStore onHeap(Map<String, String> messages) {
+        ImmutableStringMap<String> map = ImmutableStringMap.copyOf(messages);
+        return new MessageStore() {
+            private volatile long estimatedHeapBytes = -1;
+
+            @Override
+            public String get(String code) {
+                return map.get(code);
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public void forEach(BiConsumer<String, String> action) {
+                map.forEach(action);
+            }
+
+            @Override
+            public long estimatedHeapBytes() {
+                long result = this.estimatedHeapBytes;
+                if (result < 0) {
+                    this.estimatedHeapBytes = result = MessageStore.super.estimatedHeapBytes();
+                }
+                return result;
+            }
+        };
+    }
+}
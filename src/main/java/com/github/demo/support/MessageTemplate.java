@@ -0,0 +1,202 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+
+import java.text.DateFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, thread-safe replacement for a {@link java.text.MessageFormat} whose pattern only contains
+ * literal text and plain {@code {n}} arguments. Arguments are formatted exactly like {@code MessageFormat}
+ * does without a format type, but into a thread-local buffer and without any shared lock.
+ */
+public final class MessageTemplate {
+
+    /**
+     * Marker for patterns that need full {@code MessageFormat} features (format types, choice, date styles...).
+     */
+    static final MessageTemplate NOT_COMPILABLE = new MessageTemplate(new String[0], new int[0], 0);
+
+    private static final int MAX_CACHED_BUFFER = 8192;
+
+    /** Formats kept per thread and type, the least recently used locale is dropped first. */
+    static final int MAX_CACHED_FORMATS = 8;
+
+    private static final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    private static final ThreadLocal<Map<Locale, NumberFormat>> numberFormats = ThreadLocal.withInitial(FormatCache::new);
+
+    private static final ThreadLocal<Map<Locale, DateFormat>> dateFormats = ThreadLocal.withInitial(FormatCache::new);
+
+    /** Literal segment before each argument slot, plus the trailing literal. */
+    private final String[] literals;
+
+    private final int[] argumentIndexes;
+
+    private final int literalLength;
+
+    private MessageTemplate(String[] literals, int[] argumentIndexes, int literalLength) {
+        this.literals = literals;
+        this.argumentIndexes = argumentIndexes;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Buffer of the thread, not reused while a format call on the same thread is still writing into it.
+     */
+    private static final class Buffer {
+
+        final StringBuilder builder = new StringBuilder(256);
+
+        boolean inUse;
+    }
+
+    /**
+     * Formats of the last locales used by the thread: locales taken from requests must not grow a pooled thread.
+     */
+    private static final class FormatCache<F> extends LinkedHashMap<Locale, F> {
+
+        FormatCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Locale, F> eldest) {
+            return size() > MAX_CACHED_FORMATS;
+        }
+    }
+
+    /**
+     * Compile the given {@code MessageFormat} pattern.
+     * @return the template, or {@link #NOT_COMPILABLE} if the pattern needs {@code MessageFormat}
+     */
+    static MessageTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(pattern.length());
+        int literalLength = 0;
+        boolean quoted = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i += 2;
+                    continue;
+                }
+                quoted = !quoted;
+            } else if (ch == '{' && !quoted) {
+                int end = pattern.indexOf('}', i + 1);
+                if (end < 0) {
+                    return NOT_COMPILABLE;
+                }
+                int index = parseArgumentIndex(pattern, i + 1, end);
+                if (index < 0) {
+                    return NOT_COMPILABLE;
+                }
+                literals.add(literal.toString());
+                literalLength += literal.length();
+                literal.setLength(0);
+                indexes.add(index);
+                i = end;
+            } else {
+                literal.append(ch);
+            }
+            i++;
+        }
+        if (quoted) {
+            return NOT_COMPILABLE;
+        }
+        literals.add(literal.toString());
+        literalLength += literal.length();
+        int[] argumentIndexes = new int[indexes.size()];
+        for (int j = 0; j < argumentIndexes.length; j++) {
+            argumentIndexes[j] = indexes.get(j);
+        }
+        return new MessageTemplate(literals.toArray(new String[0]), argumentIndexes, literalLength);
+    }
+
+    private static int parseArgumentIndex(String pattern, int start, int end) {
+        if (start == end || end - start > 4) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            char ch = pattern.charAt(i);
+            if (ch < '0' || ch > '9') {
+                // Format types, styles, nested braces or whitespace: leave those to MessageFormat.
+                return -1;
+            }
+            index = index * 10 + (ch - '0');
+        }
+        return index;
+    }
+
+    /**
+     * Number formats cached by the current thread.
+     */
+    static int cachedNumberFormats() {
+        return numberFormats.get().size();
+    }
+
+    boolean isCompiled() {
+        return this != NOT_COMPILABLE;
+    }
+
+    public String format(@Nullable Object[] args, Locale locale) {
+        Buffer buffer = buffers.get();
+        if (buffer.inUse) {
+            // Re-entered from the toString() of an argument, e.g. one resolving its own message.
+            return format(args, locale, new StringBuilder(this.literalLength + this.argumentIndexes.length * 16)).toString();
+        }
+        buffer.inUse = true;
+        String result;
+        try {
+            buffer.builder.setLength(0);
+            result = format(args, locale, buffer.builder).toString();
+        } finally {
+            buffer.inUse = false;
+        }
+        if (buffer.builder.capacity() > MAX_CACHED_BUFFER) {
+            buffers.remove();
+        }
+        return result;
+    }
+
+    public StringBuilder format(@Nullable Object[] args, Locale locale, StringBuilder buffer) {
+        buffer.ensureCapacity(buffer.length() + this.literalLength + this.argumentIndexes.length * 16);
+        for (int i = 0; i < this.argumentIndexes.length; i++) {
+            buffer.append(this.literals[i]);
+            int index = this.argumentIndexes[i];
+            if (args == null || index >= args.length) {
+                buffer.append('{').append(index).append('}');
+            } else {
+                appendArgument(buffer, args[index], locale);
+            }
+        }
+        return buffer.append(this.literals[this.argumentIndexes.length]);
+    }
+
+    private static void appendArgument(StringBuilder buffer, @Nullable Object arg, Locale locale) {
+        // Same defaults as MessageFormat for an argument without format type.
+        if (arg == null) {
+            buffer.append("null");
+        } else if (arg instanceof String) {
+            buffer.append((String) arg);
+        } else if (arg instanceof Number) {
+            buffer.append(numberFormats.get().computeIfAbsent(locale, NumberFormat::getInstance).format(arg));
+        } else if (arg instanceof Date) {
+            buffer.append(dateFormats.get().computeIfAbsent(locale,
+                    l -> DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, l)).format(arg));
+        } else {
+            buffer.append(arg);
+        }
+    }
+}
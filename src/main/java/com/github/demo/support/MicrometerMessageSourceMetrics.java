@@ -0,0 +1,200 @@
+package com.github.demo.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link MessageSourceMetrics} backed by Micrometer. Meters are tagged with the {@code backend}
+ * ({@code consul}, {@code nacos}...):
+ * <ul>
+ * <li>{@code i18n.message.resolve} timer (histogram), tagged by {@code locale} and fallback {@code depth}</li>
+ * <li>{@code i18n.bundle.cache} counter, tagged by {@code result} (hit, miss, negative_hit)</li>
+ * <li>{@code i18n.bundle.load} and {@code i18n.bundle.fetch} timers</li>
+ * <li>{@code i18n.watch.cycle} timer</li>
+ * <li>{@code i18n.bundle.keys} and {@code i18n.bundle.staleness} gauges, tagged by {@code bundle}</li>
+ * <li>{@code i18n.bundle.heap} gauge, the estimated heap footprint of all cached bundles</li>
+ * <li>{@code i18n.cache.gets}, {@code i18n.cache.evictions} and {@code i18n.cache.size} of the bounded caches,
+ * tagged by {@code cache}</li>
+ * </ul>
+ */
+public class MicrometerMessageSourceMetrics implements MessageSourceMetrics {
+
+    private static final int MAX_DEPTH = 8;
+
+    private final MeterRegistry registry;
+
+    private final String backend;
+
+    private final ConcurrentMap<Locale, Timer[]> resolveTimers = new ConcurrentHashMap<>();
+
+    private final Counter[] cacheCounters = new Counter[CacheResult.values().length];
+
+    private final Timer loadFoundTimer;
+
+    private final Timer loadNotFoundTimer;
+
+    private final Timer fetchTimer;
+
+    private final Timer watchTimer;
+
+    private final Set<String> boundBundles = ConcurrentHashMap.newKeySet();
+
+    private volatile Map<String, LocalPropertiesHolder> bundles = Collections.emptyMap();
+
+    private volatile Map<String, Long> syncTimes = Collections.emptyMap();
+
+    public MicrometerMessageSourceMetrics(MeterRegistry registry, String backend) {
+        this.registry = registry;
+        this.backend = backend;
+        for (CacheResult result : CacheResult.values()) {
+            this.cacheCounters[result.ordinal()] = Counter.builder("i18n.bundle.cache")
+                    .description("Bundle cache lookups of message resolutions")
+                    .tags("backend", backend, "result", result.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        this.loadFoundTimer = loadTimer("found");
+        this.loadNotFoundTimer = loadTimer("not_found");
+        this.fetchTimer = Timer.builder("i18n.bundle.fetch")
+                .description("Remote requests fetching a bundle")
+                .tag("backend", backend)
+                .register(registry);
+        this.watchTimer = Timer.builder("i18n.watch.cycle")
+                .description("Duration of a watch cycle over the bundles")
+                .tag("backend", backend)
+                .register(registry);
+        Gauge.builder("i18n.bundle.heap", this, MicrometerMessageSourceMetrics::estimatedHeapBytes)
+                .description("Estimated heap footprint of the cached bundles")
+                .baseUnit("bytes")
+                .tag("backend", backend)
+                .register(registry);
+    }
+
+    private Timer loadTimer(String result) {
+        return Timer.builder("i18n.bundle.load")
+                .description("Bundle loads, remote fetch and parsing included")
+                .tags("backend", this.backend, "result", result)
+                .register(this.registry);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordResolve(Locale locale, int depth, long nanos) {
+        Timer[] timers = this.resolveTimers.computeIfAbsent(locale, l -> new Timer[MAX_DEPTH + 2]);
+        int slot = Math.min(depth, MAX_DEPTH - 1) + 2;
+        Timer timer = timers[slot];
+        if (timer == null) {
+            timer = Timer.builder("i18n.message.resolve")
+                    .description("Message code resolutions")
+                    .tags("backend", this.backend, "locale", locale.toString(), "depth", depthTag(depth))
+                    .publishPercentileHistogram()
+                    .register(this.registry);
+            timers[slot] = timer;
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String depthTag(int depth) {
+        if (depth == MERGED) {
+            return "merged";
+        }
+        if (depth == NOT_FOUND) {
+            return "not_found";
+        }
+        return String.valueOf(Math.min(depth, MAX_DEPTH - 1));
+    }
+
+    @Override
+    public void recordBundleCache(CacheResult result) {
+        this.cacheCounters[result.ordinal()].increment();
+    }
+
+    @Override
+    public void recordLoad(long nanos, boolean found) {
+        (found ? this.loadFoundTimer : this.loadNotFoundTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRemoteFetch(long nanos) {
+        this.fetchTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordWatchCycle(long nanos) {
+        this.watchTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void bindBundles(Map<String, LocalPropertiesHolder> bundles, Map<String, Long> syncTimes) {
+        this.bundles = bundles;
+        this.syncTimes = syncTimes;
+        for (String filename : bundles.keySet()) {
+            bundleLoaded(filename);
+        }
+    }
+
+    @Override
+    public void bundleLoaded(String filename) {
+        if (!this.boundBundles.add(filename)) {
+            return;
+        }
+        Gauge.builder("i18n.bundle.keys", this, m -> {
+                    LocalPropertiesHolder holder = m.bundles.get(filename);
+                    return holder != null ? holder.size() : 0;
+                })
+                .description("Number of messages of a cached bundle")
+                .tags("backend", this.backend, "bundle", filename)
+                .register(this.registry);
+        Gauge.builder("i18n.bundle.staleness", this, m -> {
+                    Long syncTime = m.syncTimes.get(filename);
+                    return syncTime != null ? (System.currentTimeMillis() - syncTime) / 1000.0 : Double.NaN;
+                })
+                .description("Time since a bundle was last confirmed by the config server")
+                .baseUnit("seconds")
+                .tags("backend", this.backend, "bundle", filename)
+                .register(this.registry);
+    }
+
+    @Override
+    public void bindCache(String name, Supplier<CacheStats> stats) {
+        FunctionCounter.builder("i18n.cache.gets", stats, s -> s.get().getHitCount())
+                .description("Cache lookups")
+                .tags("backend", this.backend, "cache", name, "result", "hit")
+                .register(this.registry);
+        FunctionCounter.builder("i18n.cache.gets", stats, s -> s.get().getMissCount())
+                .description("Cache lookups")
+                .tags("backend", this.backend, "cache", name, "result", "miss")
+                .register(this.registry);
+        FunctionCounter.builder("i18n.cache.evictions", stats, s -> s.get().getEvictionCount())
+                .description("Entries evicted to stay within the cache bounds")
+                .tags("backend", this.backend, "cache", name)
+                .register(this.registry);
+        Gauge.builder("i18n.cache.size", stats, s -> s.get().getSize())
+                .description("Number of cached entries")
+                .tags("backend", this.backend, "cache", name)
+                .register(this.registry);
+    }
+
+    private double estimatedHeapBytes() {
+        long total = 0;
+        for (LocalPropertiesHolder holder : this.bundles.values()) {
+            total += holder.estimatedHeapBytes();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.demo.support;
+
+import com.alibaba.cloud.nacos.NacosConfigProperties;
+import com.alibaba.nacos.api.NacosFactory;
+import com.alibaba.nacos.api.PropertyKeyConst;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.AbstractSharedListener;
+import com.alibaba.nacos.api.exception.NacosException;
+import com.github.demo.context.NacosMessageSourceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Nacos config backend, one dataId per bundle in the configured group. Nacos pushes the changes to a
+ * listener registered per dataId; it cannot list the dataIds of a namespace.
+ * <p>
+ * Each dataId has a single managed listener, however often its bundle is (re)fetched. Pushes are handed
+ * off the Nacos notify thread to a small bounded executor, coalesced per dataId so that only the latest
+ * content is parsed, and skipped when their MD5 matches the cached bundle. {@link #stop()} removes the
+ * listeners from Nacos, {@link #start()} registers them again.
+ */
+public class NacosConfigBackend implements ConfigBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(NacosConfigBackend.class);
+
+    private final NacosMessageSourceProperties i18nProperties;
+
+    /**
+     * Note: The Nacos config might be null if its initialization failed.
+     */
+    private final ConfigService configService;
+
+    /** Listener of each watched dataId, found or missing. */
+    private final ConcurrentMap<String, ManagedListener> listeners = new ConcurrentHashMap<>();
+
+    private final ThreadPoolTaskExecutor executor;
+
+    /** Config server address, {@code null} if unknown. */
+    @Nullable
+    private final String serverAddr;
+
+    /** Whether the listeners are registered with Nacos, from construction until {@link #stop()}. */
+    private volatile boolean active = true;
+
+    public NacosConfigBackend(ConfigService configService, NacosMessageSourceProperties i18nProperties) {
+        this(configService, i18nProperties, null);
+    }
+
+    /**
+     * @param serverAddr address of the config server, part of the scope of the bundles
+     */
+    public NacosConfigBackend(ConfigService configService, NacosMessageSourceProperties i18nProperties,
+                              @Nullable String serverAddr) {
+        this.configService = configService;
+        this.i18nProperties = i18nProperties;
+        this.serverAddr = serverAddr;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setThreadNamePrefix("i18n-nacos-listener-");
+        this.executor.setCorePoolSize(Math.max(1, i18nProperties.getListenerPoolSize()));
+        this.executor.setMaxPoolSize(Math.max(1, i18nProperties.getListenerPoolSize()));
+        // At most one pending update per dataId is queued, updates beyond run on the Nacos notify thread.
+        this.executor.setQueueCapacity(Math.max(1, i18nProperties.getCacheMaxBundles()));
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.setAllowCoreThreadTimeOut(true);
+        this.executor.setDaemon(true);
+        this.executor.initialize();
+    }
+
+    public static ConfigService createConfigService(String namespace, NacosConfigProperties properties) {
+        try {
+            Properties props = new Properties(properties.assembleConfigServiceProperties());
+            props.put(PropertyKeyConst.NAMESPACE, namespace);
+            return NacosFactory.createConfigService(props);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "nacos";
+    }
+
+    @Override
+    public String getScope() {
+        return (this.serverAddr != null ? this.serverAddr : "") + "/" + i18nProperties.getNamespace()
+                + "/" + i18nProperties.getGroup();
+    }
+
+    @Override
+    public BundleContent fetch(String key) {
+        if (this.configService == null) {
+            throw new IllegalStateException("Nacos config server has not been initialized or error occurred");
+        }
+        try {
+            String value = this.configService.getConfig(key, i18nProperties.getGroup(), i18nProperties.getTimeoutMs());
+            return value != null ? content(key, value) : null;
+        } catch (NacosException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public void watch(String key, @Nullable BundleContent content, BundleListener listener) {
+        ManagedListener managed = this.listeners.get(key);
+        if (managed == null) {
+            // Get notified as soon as a missing bundle is published, within the bundle cache bound.
+            if (content == null && this.listeners.size() >= i18nProperties.getCacheMaxBundles()) {
+                return;
+            }
+            ManagedListener created = new ManagedListener(key);
+            managed = this.listeners.putIfAbsent(key, created);
+            if (managed == null) {
+                managed = created;
+                managed.listener = listener;
+                managed.md5 = content != null ? content.getVersion() : null;
+                register(managed);
+                return;
+            }
+        }
+        // Re-fetched after delayMs: keep the single listener, only track the content now cached.
+        managed.listener = listener;
+        if (content != null) {
+            managed.md5 = content.getVersion();
+        }
+    }
+
+    @Override
+    public synchronized void unwatch(String key) {
+        ManagedListener managed = this.listeners.remove(key);
+        if (managed != null && managed.registered) {
+            managed.registered = false;
+            this.configService.removeListener(managed.dataId, i18nProperties.getGroup(), managed);
+        }
+    }
+
+    @Override
+    public boolean isWatching(String key) {
+        ManagedListener managed = this.listeners.get(key);
+        return this.active && managed != null && managed.registered;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!this.active) {
+            this.active = true;
+            for (ManagedListener managed : this.listeners.values()) {
+                register(managed);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (this.active) {
+            this.active = false;
+            for (ManagedListener managed : this.listeners.values()) {
+                if (managed.registered) {
+                    managed.registered = false;
+                    this.configService.removeListener(managed.dataId, i18nProperties.getGroup(), managed);
+                }
+            }
+        }
+    }
+
+    /**
+     * DataIds watched through a Nacos listener.
+     */
+    public Set<String> getListenedDataIds() {
+        return Collections.unmodifiableSet(this.listeners.keySet());
+    }
+
+    private synchronized void register(ManagedListener managed) {
+        if (!this.active || this.configService == null || managed.registered
+                || this.listeners.get(managed.dataId) != managed) {
+            // Stopped, or unwatched meanwhile.
+            return;
+        }
+        try {
+            this.configService.addListener(managed.dataId, i18nProperties.getGroup(), managed);
+            managed.registered = true;
+        } catch (NacosException | RuntimeException e) {
+            this.listeners.remove(managed.dataId, managed);
+            logger.warn("[NacosConfigMessage] failed to listen to {}", managed.dataId, e);
+        }
+    }
+
+    /**
+     * The only listener of a dataId. Receives on the Nacos notify thread, applies on the listener executor.
+     */
+    private final class ManagedListener extends AbstractSharedListener {
+
+        private final String dataId;
+
+        private volatile BundleListener listener;
+
+        /** MD5 of the cached content, {@code null} while the bundle is missing. */
+        private volatile String md5;
+
+        private volatile boolean registered;
+
+        /** Latest content not applied yet, a single task drains it. */
+        private final AtomicReference<String> pending = new AtomicReference<>();
+
+        private ManagedListener(String dataId) {
+            this.dataId = dataId;
+        }
+
+        @Override
+        public void innerReceive(String dataId, String group, String configInfo) {
+            if (StringUtils.isEmpty(configInfo)) {
+                return;
+            }
+            if (this.pending.getAndSet(configInfo) == null) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private synchronized void drain() {
+            String configInfo = this.pending.getAndSet(null);
+            BundleListener listener = this.listener;
+            if (configInfo == null || listener == null) {
+                return;
+            }
+            BundleContent content = content(this.dataId, configInfo);
+            if (content.getVersion().equals(this.md5)) {
+                // Same content pushed again, e.g. after a long-poll reconnect.
+                logger.debug("[NacosConfigMessage] {} message source unchanged ({})", this.dataId, this.md5);
+                listener.bundleConfirmed(this.dataId);
+                return;
+            }
+            logger.info("[NacosConfigMessage] receive {} message source update ({})", this.dataId, content.getVersion());
+            try {
+                listener.bundleChanged(content);
+                this.md5 = content.getVersion();
+            } catch (RuntimeException e) {
+                logger.warn("[NacosConfigMessage] failed to apply {} update", this.dataId, e);
+            }
+        }
+    }
+
+    private static BundleContent content(String dataId, String configInfo) {
+        return new BundleContent(dataId, configInfo, DigestUtils.md5DigestAsHex(configInfo.getBytes(StandardCharsets.UTF_8)));
+    }
+}
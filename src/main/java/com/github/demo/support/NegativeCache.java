@@ -0,0 +1,195 @@
+package com.github.demo.support;
+
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bundles known to be missing on the config server. Requests never fetch a known-missing bundle inline:
+ * it is re-checked in background after an exponential backoff with jitter, so that pods do not retry in
+ * sync, as long as it keeps being requested. An entry not requested since its last check expires instead,
+ * and the next request fetches it again. Bundles watched by the backend are never re-checked: the watch
+ * or listener that sees the bundle appear invalidates the entry at once.
+ */
+class NegativeCache {
+
+    private final BoundedCache<String, Miss> misses;
+
+    private final long initialBackoffMs;
+
+    private final long maxBackoffMs;
+
+    private final double jitter;
+
+    private final Consumer<String> recheck;
+
+    private final ScheduledExecutorService scheduler;
+
+    /** No re-check is scheduled while paused, the entries wait for {@link #resume}. */
+    private volatile boolean paused = false;
+
+    /**
+     * @param jitter fraction of each backoff that is randomized, between 0 and 1
+     * @param recheck called in background to fetch a bundle again
+     */
+    NegativeCache(int maxEntries, long initialBackoffMs, long maxBackoffMs, double jitter,
+                  Consumer<String> recheck, String threadNamePrefix) {
+        this.misses = new BoundedCache<>(maxEntries);
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+        this.jitter = Math.min(1.0, Math.max(0.0, jitter));
+        this.recheck = recheck;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    private static final class Miss {
+
+        final int failures;
+
+        /** Whether a backend watch reports the bundle once it appears. */
+        final boolean watched;
+
+        /** {@code null} if not scheduled. */
+        @Nullable
+        final ScheduledFuture<?> recheck;
+
+        /** Requested since the last check. */
+        volatile boolean requested;
+
+        Miss(int failures, boolean watched, @Nullable ScheduledFuture<?> recheck) {
+            this.failures = failures;
+            this.watched = watched;
+            this.recheck = recheck;
+        }
+    }
+
+    /**
+     * Whether a requested bundle is known to be missing; the request keeps it re-checked.
+     */
+    boolean isMissing(String filename) {
+        Miss miss = this.misses.get(filename);
+        if (miss == null) {
+            return false;
+        }
+        if (!miss.requested) {
+            miss.requested = true;
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #isMissing}, without recording cache statistics.
+     */
+    boolean contains(String filename) {
+        return this.misses.peek(filename) != null;
+    }
+
+    /**
+     * Record a failed fetch and schedule the next background re-check, unless the bundle is watched.
+     * @param watched whether a backend watch reports the bundle once it appears
+     */
+    void recordMiss(String filename, boolean watched) {
+        this.misses.compute(filename, (key, miss) -> {
+            cancel(miss);
+            int failures = miss != null ? miss.failures + 1 : 1;
+            return new Miss(failures, watched, watched ? null : schedule(key, failures));
+        });
+    }
+
+    /**
+     * Forget a bundle that has been found.
+     */
+    void invalidate(String filename) {
+        cancel(this.misses.remove(filename));
+    }
+
+    /**
+     * Stop the background re-checks, the entries are kept.
+     */
+    void pause() {
+        this.paused = true;
+        this.misses.forEach((key, miss) -> cancel(miss));
+    }
+
+    /**
+     * Schedule again the re-checks of the entries kept while paused.
+     */
+    void resume() {
+        this.paused = false;
+        this.misses.forEach((key, miss) -> {
+            if (!miss.watched && (miss.recheck == null || miss.recheck.isCancelled())) {
+                this.misses.compute(key, (k, current) -> {
+                    if (current != miss) {
+                        return current;
+                    }
+                    Miss resumed = new Miss(current.failures, false, schedule(k, current.failures));
+                    resumed.requested = current.requested;
+                    return resumed;
+                });
+            }
+        });
+    }
+
+    /**
+     * Stop the re-checks for good and release the scheduler thread.
+     */
+    void shutdown() {
+        this.paused = true;
+        this.scheduler.shutdownNow();
+    }
+
+    @Nullable
+    private ScheduledFuture<?> schedule(String filename, int failures) {
+        if (this.paused) {
+            return null;
+        }
+        try {
+            return this.scheduler.schedule(() -> recheck(filename), backoffMs(failures), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    private static void cancel(@Nullable Miss miss) {
+        if (miss != null && miss.recheck != null) {
+            miss.recheck.cancel(false);
+        }
+    }
+
+    long backoffMs(int failures) {
+        long backoff = this.initialBackoffMs << Math.min(failures - 1, 30);
+        if (backoff <= 0 || backoff > this.maxBackoffMs) {
+            backoff = this.maxBackoffMs;
+        }
+        // Spread the retries of all pods over [backoff * (1 - jitter), backoff].
+        long spread = (long) (backoff * this.jitter);
+        return backoff - (spread > 0 ? ThreadLocalRandom.current().nextLong(spread + 1) : 0);
+    }
+
+    private void recheck(String filename) {
+        Miss miss = this.misses.peek(filename);
+        // Evicted or invalidated meanwhile.
+        if (this.paused || miss == null) {
+            return;
+        }
+        if (miss.requested) {
+            this.recheck.accept(filename);
+        } else {
+            // Idle, the next request fetches it again.
+            this.misses.compute(filename, (key, current) -> current == miss ? null : current);
+        }
+    }
+
+    CacheStats stats() {
+        return this.misses.stats();
+    }
+}
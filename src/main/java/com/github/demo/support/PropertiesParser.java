@@ -0,0 +1,300 @@
+package com.github.demo.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Single-pass parser of the {@code .properties} format, with the semantics of {@link java.util.Properties#load}
+ * (comments, continuation lines, {@code =} / {@code :} / whitespace separators, escapes), reading the decoded
+ * content in place instead of going through a byte stream, a reader and a {@code Hashtable}.
+ * <p>
+ * Large documents are split at logical line boundaries into chunks that are parsed in parallel, on a
+ * pool of the parser's own; later chunks override earlier ones, so duplicate keys resolve as with a sequential load.
+ */
+final class PropertiesParser {
+
+    /** Documents shorter than this, in chars, are parsed on the calling thread. */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private static final int MIN_CHUNK = 1 << 18;
+
+    private PropertiesParser() {
+    }
+
+    static Map<String, String> parse(String source) {
+        int length = source.length();
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors(), length / MIN_CHUNK);
+        if (length < PARALLEL_THRESHOLD || chunks < 2) {
+            Map<String, String> target = new HashMap<>(estimateEntries(length));
+            new Chunk(source, 0, length).parseInto(target);
+            return target;
+        }
+        List<Integer> bounds = splitPoints(source, chunks);
+        List<CompletableFuture<Map<String, String>>> parts = new ArrayList<>(bounds.size() - 1);
+        for (int i = 1; i < bounds.size() - 1; i++) {
+            int start = bounds.get(i);
+            int end = bounds.get(i + 1);
+            parts.add(CompletableFuture.supplyAsync(() -> parseChunk(source, start, end), ParserPool.POOL));
+        }
+        // The calling thread parses the first chunk, and never blocks on the common pool.
+        Map<String, String> target = new HashMap<>(estimateEntries(length));
+        new Chunk(source, 0, bounds.get(1)).parseInto(target);
+        for (CompletableFuture<Map<String, String>> part : parts) {
+            target.putAll(part.join());
+        }
+        return target;
+    }
+
+    private static Map<String, String> parseChunk(String source, int start, int end) {
+        Map<String, String> part = new HashMap<>(estimateEntries(end - start));
+        new Chunk(source, start, end).parseInto(part);
+        return part;
+    }
+
+    /**
+     * Daemon threads parsing the chunks of large documents, created on first use. A pool of its own keeps
+     * the parsing out of the common {@link ForkJoinPool}, shared with the application's parallel streams.
+     */
+    private static final class ParserPool {
+
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("i18n-parser-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    private static int estimateEntries(int chars) {
+        // Assume around 48 chars per entry, the map grows if needed.
+        return Math.max(16, chars / 48 * 4 / 3);
+    }
+
+    /**
+     * Offsets where a new logical line starts, i.e. after a line feed that does not end a continued line.
+     */
+    static List<Integer> splitPoints(String source, int chunks) {
+        int length = source.length();
+        List<Integer> bounds = new ArrayList<>(chunks + 1);
+        bounds.add(0);
+        for (int i = 1; i < chunks; i++) {
+            int at = Math.max(bounds.get(bounds.size() - 1), (int) ((long) length * i / chunks));
+            int split = nextLineStart(source, at);
+            if (split < 0) {
+                break;
+            }
+            if (split > bounds.get(bounds.size() - 1)) {
+                bounds.add(split);
+            }
+        }
+        bounds.add(length);
+        return bounds;
+    }
+
+    private static int nextLineStart(String source, int from) {
+        int lf = source.indexOf('\n', from);
+        while (lf >= 0) {
+            int last = lf - 1;
+            if (last >= 0 && source.charAt(last) == '\r') {
+                last--;
+            }
+            int backslashes = 0;
+            while (last >= 0 && source.charAt(last) == '\\') {
+                backslashes++;
+                last--;
+            }
+            if ((backslashes & 1) == 0) {
+                return lf + 1;
+            }
+            lf = source.indexOf('\n', lf + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Parser state over a range of the source. Logical lines are assembled in a reused buffer, escapes
+     * are only decoded for the keys and values that contain any.
+     */
+    private static final class Chunk {
+
+        private final String source;
+
+        private final int end;
+
+        private int pos;
+
+        private char[] line = new char[256];
+
+        private StringBuilder unescaped;
+
+        Chunk(String source, int start, int end) {
+            this.source = source;
+            this.pos = start;
+            this.end = end;
+        }
+
+        void parseInto(Map<String, String> target) {
+            int limit;
+            while ((limit = readLine()) >= 0) {
+                char[] buf = this.line;
+                int keyLen = 0;
+                int valueStart = limit;
+                boolean hasSep = false;
+                boolean precedingBackslash = false;
+                while (keyLen < limit) {
+                    char c = buf[keyLen];
+                    if ((c == '=' || c == ':') && !precedingBackslash) {
+                        valueStart = keyLen + 1;
+                        hasSep = true;
+                        break;
+                    } else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                        valueStart = keyLen + 1;
+                        break;
+                    }
+                    precedingBackslash = c == '\\' && !precedingBackslash;
+                    keyLen++;
+                }
+                while (valueStart < limit) {
+                    char c = buf[valueStart];
+                    if (c != ' ' && c != '\t' && c != '\f') {
+                        if (!hasSep && (c == '=' || c == ':')) {
+                            hasSep = true;
+                        } else {
+                            break;
+                        }
+                    }
+                    valueStart++;
+                }
+                target.put(convert(buf, 0, keyLen), convert(buf, valueStart, limit - valueStart));
+            }
+        }
+
+        /**
+         * Read the next logical line, without comments, leading whitespace and line continuations,
+         * following the {@code LineReader} of {@link java.util.Properties}.
+         * @return its length in {@link #line}, or {@code -1} at the end of the chunk
+         */
+        private int readLine() {
+            int len = 0;
+            boolean skipWhiteSpace = true;
+            boolean appendedLineBegin = false;
+            boolean precedingBackslash = false;
+            while (true) {
+                if (this.pos >= this.end) {
+                    if (len == 0) {
+                        return -1;
+                    }
+                    return precedingBackslash ? len - 1 : len;
+                }
+                char c = this.source.charAt(this.pos++);
+                if (skipWhiteSpace) {
+                    if (c == ' ' || c == '\t' || c == '\f') {
+                        continue;
+                    }
+                    if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+                        continue;
+                    }
+                    skipWhiteSpace = false;
+                    appendedLineBegin = false;
+                }
+                if (len == 0 && (c == '#' || c == '!')) {
+                    // Comment, skip the rest of the line.
+                    while (this.pos < this.end) {
+                        c = this.source.charAt(this.pos++);
+                        if (c == '\r' || c == '\n') {
+                            break;
+                        }
+                    }
+                    if (this.pos >= this.end) {
+                        return -1;
+                    }
+                    skipWhiteSpace = true;
+                    continue;
+                }
+                if (c != '\n' && c != '\r') {
+                    if (len == this.line.length) {
+                        char[] grown = new char[len * 2];
+                        System.arraycopy(this.line, 0, grown, 0, len);
+                        this.line = grown;
+                    }
+                    this.line[len++] = c;
+                    precedingBackslash = c == '\\' && !precedingBackslash;
+                } else if (len == 0) {
+                    skipWhiteSpace = true;
+                } else if (this.pos >= this.end) {
+                    return precedingBackslash ? len - 1 : len;
+                } else if (precedingBackslash) {
+                    // Continuation line: drop the backslash and the leading whitespace of the next line.
+                    len--;
+                    skipWhiteSpace = true;
+                    appendedLineBegin = true;
+                    precedingBackslash = false;
+                    if (c == '\r' && this.source.charAt(this.pos) == '\n') {
+                        this.pos++;
+                    }
+                } else {
+                    return len;
+                }
+            }
+        }
+
+        private String convert(char[] buf, int off, int len) {
+            int i = off;
+            int limit = off + len;
+            while (i < limit && buf[i] != '\\') {
+                i++;
+            }
+            if (i == limit) {
+                return new String(buf, off, len);
+            }
+            StringBuilder out = this.unescaped;
+            if (out == null) {
+                this.unescaped = out = new StringBuilder(Math.max(64, len));
+            }
+            out.setLength(0);
+            out.append(buf, off, i - off);
+            while (i < limit) {
+                char c = buf[i++];
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                if (i == limit) {
+                    // A trailing lone backslash is dropped, as by Properties.load.
+                    break;
+                }
+                c = buf[i++];
+                if (c == 'u') {
+                    if (i + 4 > limit) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    int value = 0;
+                    for (int k = 0; k < 4; k++) {
+                        int digit = Character.digit(buf[i++], 16);
+                        if (digit < 0) {
+                            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                        }
+                        value = (value << 4) + digit;
+                    }
+                    out.append((char) value);
+                } else if (c == 't') {
+                    out.append('\t');
+                } else if (c == 'r') {
+                    out.append('\r');
+                } else if (c == 'n') {
+                    out.append('\n');
+                } else if (c == 'f') {
+                    out.append('\f');
+                } else {
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.demo.support;
+
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reactive companion of a {@link ConfigBackendMessageSource}, safe to call from event-loop threads. Cached
+ * messages are resolved on subscription; missing bundles are fetched on the background loader of the message
+ * source, shared with the lookups already waiting for them, and the message is emitted once they arrive, on
+ * a Reactor scheduler: the few loader threads never run the operators of the caller.
+ */
+public class ReactiveMessageSource {
+
+    private final ConfigBackendMessageSource messageSource;
+
+    private final Scheduler scheduler;
+
+    public ReactiveMessageSource(ConfigBackendMessageSource messageSource) {
+        this(messageSource, Schedulers.parallel());
+    }
+
+    /**
+     * @param scheduler emits the messages whose bundles had to be loaded first
+     */
+    public ReactiveMessageSource(ConfigBackendMessageSource messageSource, Scheduler scheduler) {
+        this.messageSource = messageSource;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return the message, or an error with {@link NoSuchMessageException} if it cannot be resolved
+     */
+    public Mono<String> getMessageReactive(String code, @Nullable Object[] args, Locale locale) {
+        return getMessageReactive(code, args, null, locale)
+                .switchIfEmpty(Mono.error(() -> new NoSuchMessageException(code, locale)));
+    }
+
+    /**
+     * @return the message, the default message, or empty if neither is available
+     */
+    public Mono<String> getMessageReactive(String code, @Nullable Object[] args, @Nullable String defaultMessage,
+                                           Locale locale) {
+        return Mono.defer(() -> {
+            CompletableFuture<LocaleChain> loading = this.messageSource.loadChainAsync(locale);
+            Mono<LocaleChain> chain = Mono.fromFuture(loading);
+            // Cached chains stay on the subscribing thread, loaded ones leave the loader pool they completed on.
+            return loading.isDone() ? chain : chain.publishOn(this.scheduler);
+        }).flatMap(chain -> Mono.justOrEmpty(this.messageSource.getMessage(code, args, defaultMessage, chain)));
+    }
+
+    public ConfigBackendMessageSource getMessageSource() {
+        return this.messageSource;
+    }
+}
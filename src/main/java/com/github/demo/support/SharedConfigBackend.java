@@ -0,0 +1,370 @@
+package com.github.demo.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local tier between the bundle cache of a message source and its backend, shared by every process
+ * of the host that points to the same directory (a {@code tmpfs} such as {@code /dev/shm}). Each bundle is
+ * one file:
+ * <pre>
+ * int magic, int format, long published time, int flags, utf8 key, utf8 version, utf8 content
+ * </pre>
+ * where every utf8 string is an int byte length followed by the bytes, and the {@code MISSING} flag records
+ * a bundle the backend does not have.
+ * <p>
+ * A fetch is served from the file while it is fresh. Otherwise the process takes the file lock of the bundle,
+ * so only one process of the host fetches from the backend and publishes the result while the others wait
+ * for it and read it. Files are replaced atomically and mapped read-only; a process maps a bundle again only
+ * when its file has been replaced. Changes pushed by the backend watches are published as well.
+ */
+class SharedConfigBackend implements ConfigBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedConfigBackend.class);
+
+    private static final int MAGIC = 0x69313873;
+
+    private static final int FORMAT = 1;
+
+    private static final int MISSING = 1;
+
+    private static final String SUFFIX = ".bundle";
+
+    private final ConfigBackend delegate;
+
+    private final Path directory;
+
+    private final long ttlMs;
+
+    private final long missingTtlMs;
+
+    /** Last mapping of each bundle file, reused until the file is replaced. */
+    private final ConcurrentMap<String, Mapped> mapped = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes the fetches of a bundle within the process, by canonical lock file path, whatever the
+     * instance: a JVM cannot hold two locks on the same file. The file lock serializes the processes.
+     */
+    private static final ConcurrentMap<String, Object> FETCH_LOCKS = new ConcurrentHashMap<>();
+
+    private final Map<BundleListener, BundleListener> listeners = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param directory shared directory, the bundles of the backend are kept in a sub-directory named after it
+     * and, if any, after a digest of its {@link ConfigBackend#getScope() scope}
+     * @param ttlMs time a published bundle is served without asking the backend
+     * @param missingTtlMs time a bundle published as missing is served as missing
+     */
+    SharedConfigBackend(ConfigBackend delegate, String directory, long ttlMs, long missingTtlMs) {
+        this.delegate = delegate;
+        Path backendDirectory = Paths.get(directory).resolve(delegate.getName());
+        String scope = delegate.getScope();
+        if (!scope.isEmpty()) {
+            // Services of other namespaces, groups or servers have bundles of their own under the same keys.
+            backendDirectory = backendDirectory.resolve(DigestUtils.md5DigestAsHex(scope.getBytes(StandardCharsets.UTF_8)));
+        }
+        this.directory = backendDirectory.toAbsolutePath().normalize();
+        this.ttlMs = ttlMs;
+        this.missingTtlMs = Math.min(ttlMs, missingTtlMs);
+    }
+
+    /**
+     * One published bundle, as read from its file.
+     */
+    private static final class Mapped {
+
+        private final Object fileKey;
+
+        private final long modified;
+
+        private final long published;
+
+        @Nullable
+        private final BundleContent content;
+
+        private Mapped(Object fileKey, long modified, long published, @Nullable BundleContent content) {
+            this.fileKey = fileKey;
+            this.modified = modified;
+            this.published = published;
+            this.content = content;
+        }
+    }
+
+    ConfigBackend getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public String getName() {
+        return this.delegate.getName();
+    }
+
+    @Override
+    public BundleContent fetch(String key) {
+        Mapped shared = read(key);
+        if (isFresh(shared)) {
+            this.hits.incrementAndGet();
+            return shared.content;
+        }
+        Path lockFile;
+        try {
+            Files.createDirectories(this.directory);
+            lockFile = this.directory.toRealPath().resolve(encode(key) + ".lock");
+        } catch (IOException ex) {
+            return fetchDirectly(key, ex);
+        }
+        synchronized (FETCH_LOCKS.computeIfAbsent(lockFile.toString(), path -> new Object())) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    // Another thread or process may have published it while we were waiting for the lock.
+                    shared = read(key);
+                    if (isFresh(shared)) {
+                        this.hits.incrementAndGet();
+                        return shared.content;
+                    }
+                    this.misses.incrementAndGet();
+                    BundleContent content = this.delegate.fetch(key);
+                    publish(key, content);
+                    return content;
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException ex) {
+                return fetchDirectly(key, ex);
+            }
+        }
+    }
+
+    @Nullable
+    private BundleContent fetchDirectly(String key, IOException cause) {
+        logger.warn("[SharedConfigBackend] shared cache unavailable for {}, fetching directly", key, cause);
+        this.misses.incrementAndGet();
+        return this.delegate.fetch(key);
+    }
+
+    @Override
+    public String getScope() {
+        return this.delegate.getScope();
+    }
+
+    @Override
+    public Map<String, BundleContent> list(String prefix) {
+        Map<String, BundleContent> bundles = this.delegate.list(prefix);
+        if (bundles != null) {
+            for (BundleContent content : bundles.values()) {
+                publishIfChanged(content);
+            }
+        }
+        return bundles;
+    }
+
+    @Override
+    public void watch(String key, @Nullable BundleContent content, BundleListener listener) {
+        this.delegate.watch(key, content, this.listeners.computeIfAbsent(listener, PublishingListener::new));
+    }
+
+    @Override
+    public boolean isOlder(@Nullable String version, @Nullable String cachedVersion) {
+        return this.delegate.isOlder(version, cachedVersion);
+    }
+
+    @Override
+    public void unwatch(String key) {
+        this.delegate.unwatch(key);
+    }
+
+    @Override
+    public boolean isWatching(String key) {
+        return this.delegate.isWatching(key);
+    }
+
+    @Override
+    public void start() {
+        this.delegate.start();
+    }
+
+    @Override
+    public void stop() {
+        this.delegate.stop();
+    }
+
+    @Override
+    public void setMetrics(MessageSourceMetrics metrics) {
+        this.delegate.setMetrics(metrics);
+    }
+
+    /**
+     * Fetches served from the shared tier (hits) and from the backend (misses).
+     */
+    CacheStats stats() {
+        return new CacheStats(this.hits.get(), this.misses.get(), 0, this.mapped.size(), 0);
+    }
+
+    /**
+     * Publishes the changes pushed by the backend, so that the other processes see them on their next fetch.
+     */
+    private final class PublishingListener implements BundleListener {
+
+        private final BundleListener listener;
+
+        private PublishingListener(BundleListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void bundleChanged(BundleContent content) {
+            publishIfChanged(content);
+            this.listener.bundleChanged(content);
+        }
+
+        @Override
+        public void bundleDeleted(String key) {
+            publish(key, null);
+            this.listener.bundleDeleted(key);
+        }
+
+        @Override
+        public void bundleConfirmed(String key) {
+            this.listener.bundleConfirmed(key);
+        }
+    }
+
+    private boolean isFresh(@Nullable Mapped shared) {
+        if (shared == null) {
+            return false;
+        }
+        long age = System.currentTimeMillis() - shared.published;
+        return age >= 0 && age < (shared.content != null ? this.ttlMs : this.missingTtlMs);
+    }
+
+    private void publishIfChanged(BundleContent content) {
+        Mapped shared = read(content.getKey());
+        if (shared != null && shared.content != null
+                && Objects.equals(shared.content.getVersion(), content.getVersion())
+                && Objects.equals(shared.content.getContent(), content.getContent())) {
+            return;
+        }
+        publish(content.getKey(), content);
+    }
+
+    private void publish(String key, @Nullable BundleContent content) {
+        Path temp = null;
+        try {
+            Files.createDirectories(this.directory);
+            temp = Files.createTempFile(this.directory, "bundle", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(content != null ? 0 : MISSING);
+                writeString(out, key);
+                writeString(out, content != null && content.getVersion() != null ? content.getVersion() : "");
+                writeString(out, content != null && content.getContent() != null ? content.getContent() : "");
+            }
+            Path target = this.directory.resolve(encode(key) + SUFFIX);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.debug("[SharedConfigBackend] published {} ({})", key, content != null ? content.getVersion() : "missing");
+        } catch (IOException ex) {
+            logger.warn("[SharedConfigBackend] publish {} failed", key, ex);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the published bundle, {@code null} if none or unreadable
+     */
+    @Nullable
+    private Mapped read(String key) {
+        Path file = this.directory.resolve(encode(key) + SUFFIX);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException ex) {
+            return null;
+        }
+        Object fileKey = attributes.fileKey() != null ? attributes.fileKey() : attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        Mapped cached = this.mapped.get(key);
+        if (cached != null && cached.fileKey.equals(fileKey) && cached.modified == modified) {
+            return cached;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                return null;
+            }
+            long published = buffer.getLong();
+            int flags = buffer.getInt();
+            String publishedKey = readString(buffer);
+            String version = readString(buffer);
+            String content = readString(buffer);
+            if (!publishedKey.equals(key)) {
+                return null;
+            }
+            Mapped result = new Mapped(fileKey, modified, published, (flags & MISSING) != 0 ? null
+                    : new BundleContent(key, content, version.isEmpty() ? null : version));
+            this.mapped.put(key, result);
+            return result;
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("[SharedConfigBackend] skip unreadable shared bundle {}", file, ex);
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String encode(String key) {
+        try {
+            return URLEncoder.encode(key, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
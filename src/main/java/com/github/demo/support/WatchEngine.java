@@ -0,0 +1,255 @@
+package com.github.demo.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Runs every watch (a blocking long-poll query) on its own thread, so that a slow key never stalls the
+ * others. Watches run on virtual threads when the JDK provides them (21+), else on a bounded pool of
+ * platform threads. A semaphore caps the number of queries in flight, each watch backs off exponentially
+ * with jitter after failures, and the next query of a watch is delayed with the task scheduler instead of
+ * a sleeping thread. {@link #stop()} cancels every watch.
+ */
+class WatchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchEngine.class);
+
+    private final String logTag;
+
+    private final String threadNamePrefix;
+
+    private final int maxConcurrency;
+
+    private final boolean virtualThreads;
+
+    private final long backoffMs;
+
+    private final long maxBackoffMs;
+
+    private final TaskScheduler scheduler;
+
+    private final Semaphore permits;
+
+    private final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+
+    private volatile ExecutorService executor;
+
+    /** Platform thread pool used before JDK 21, grown with the number of watches. */
+    private ThreadPoolExecutor platformPool;
+
+    /**
+     * @param logTag log prefix, such as {@code ConsulConfigMessage}
+     * @param maxConcurrency maximum number of queries in flight
+     * @param virtualThreads whether to use virtual threads when available
+     */
+    WatchEngine(String logTag, String threadNamePrefix, int maxConcurrency, boolean virtualThreads,
+                long backoffMs, long maxBackoffMs, TaskScheduler scheduler) {
+        this.logTag = logTag;
+        this.threadNamePrefix = threadNamePrefix;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.virtualThreads = virtualThreads;
+        this.backoffMs = Math.max(1, backoffMs);
+        this.maxBackoffMs = Math.max(this.backoffMs, maxBackoffMs);
+        this.scheduler = scheduler;
+        this.permits = new Semaphore(this.maxConcurrency);
+    }
+
+    /**
+     * A watch repeatedly running its query until cancelled.
+     */
+    final class Watch {
+
+        private final String name;
+
+        private final Runnable query;
+
+        private final long delayMs;
+
+        private volatile boolean cancelled;
+
+        private volatile Future<?> future;
+
+        private volatile int failures;
+
+        private volatile long lastSuccess;
+
+        private volatile long backoff;
+
+        private volatile String lastError;
+
+        private Watch(String name, Runnable query, long delayMs) {
+            this.name = name;
+            this.query = query;
+            this.delayMs = delayMs;
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            watches.remove(this);
+            Future<?> future = this.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+
+        int getFailures() {
+            return this.failures;
+        }
+
+        /**
+         * @return time of the last successful query, {@code 0} if none yet
+         */
+        long getLastSuccess() {
+            return this.lastSuccess;
+        }
+
+        /**
+         * @return delay before the next attempt after a failure, {@code 0} while healthy
+         */
+        long getBackoffMs() {
+            return this.backoff;
+        }
+
+        String getLastError() {
+            return this.lastError;
+        }
+    }
+
+    synchronized void start() {
+        if (this.executor == null) {
+            ExecutorService executor = this.virtualThreads ? newVirtualThreadExecutor(this.threadNamePrefix) : null;
+            if (executor == null) {
+                this.platformPool = new ThreadPoolExecutor(1, this.maxConcurrency,
+                        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreadFactory(this.threadNamePrefix));
+                this.platformPool.allowCoreThreadTimeOut(true);
+                executor = this.platformPool;
+            }
+            this.executor = executor;
+        }
+    }
+
+    boolean isRunning() {
+        return this.executor != null;
+    }
+
+    /**
+     * Start a watch whose query runs at once, then {@code delayMs} after each success.
+     * @param query blocking query; a {@link RuntimeException} makes the watch back off
+     */
+    Watch watch(String name, Runnable query, long delayMs) {
+        Watch watch = new Watch(name, query, delayMs);
+        this.watches.add(watch);
+        synchronized (this) {
+            if (this.platformPool != null) {
+                // One thread per blocking watch, within the concurrency limit.
+                this.platformPool.setCorePoolSize(Math.max(1, Math.min(this.maxConcurrency, this.watches.size())));
+            }
+        }
+        schedule(watch, 0);
+        return watch;
+    }
+
+    synchronized void stop() {
+        for (Watch watch : this.watches) {
+            watch.cancel();
+        }
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+            this.platformPool = null;
+        }
+    }
+
+    private void schedule(Watch watch, long delayMs) {
+        ExecutorService executor = this.executor;
+        if (watch.cancelled || executor == null) {
+            return;
+        }
+        try {
+            if (delayMs <= 0) {
+                watch.future = executor.submit(() -> run(watch));
+            } else {
+                watch.future = this.scheduler.schedule(() -> schedule(watch, 0),
+                        new Date(System.currentTimeMillis() + delayMs));
+            }
+        } catch (RejectedExecutionException ex) {
+            // stopped meanwhile
+        }
+    }
+
+    private void run(Watch watch) {
+        if (watch.cancelled) {
+            return;
+        }
+        long nextDelayMs;
+        try {
+            this.permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            watch.query.run();
+            watch.failures = 0;
+            watch.backoff = 0;
+            watch.lastSuccess = System.currentTimeMillis();
+            nextDelayMs = watch.delayMs;
+        } catch (RuntimeException ex) {
+            if (watch.cancelled) {
+                return;
+            }
+            watch.failures++;
+            nextDelayMs = backoffMs(watch.failures);
+            watch.backoff = nextDelayMs;
+            watch.lastError = ex.toString();
+            logger.warn("[{}] watch {} failed {} time(s), retrying in {} ms: {}",
+                    this.logTag, watch.name, watch.failures, nextDelayMs, ex.toString());
+        } finally {
+            this.permits.release();
+        }
+        if (!Thread.currentThread().isInterrupted()) {
+            schedule(watch, nextDelayMs);
+        }
+    }
+
+    long backoffMs(int failures) {
+        long backoff = this.backoffMs << Math.min(failures - 1, 30);
+        if (backoff <= 0 || backoff > this.maxBackoffMs) {
+            backoff = this.maxBackoffMs;
+        }
+        // Spread the retries over [backoff * 0.8, backoff].
+        long spread = backoff / 5;
+        return backoff - (spread > 0 ? ThreadLocalRandom.current().nextLong(spread + 1) : 0);
+    }
+
+    private static ThreadFactory daemonThreadFactory(String threadNamePrefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())}, through
+     * reflection so that the library still runs on Java 8.
+     * @return {@code null} before JDK 21
+     */
+    static ExecutorService newVirtualThreadExecutor(String threadNamePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+}
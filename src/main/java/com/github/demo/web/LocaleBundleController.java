@@ -0,0 +1,55 @@
+package com.github.demo.web;
+
+import com.github.demo.support.LocaleBundleExport;
+import com.github.demo.support.LocaleBundleExporter;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+
+/**
+ * Serves every message of a locale as JSON, straight from the pre-serialized {@link LocaleBundleExport}:
+ * {@code GET /i18n/messages/zh_CN}, or {@code GET /i18n/messages} for the locale of the request.
+ * Clients revalidate with {@code If-None-Match} and get a {@code 304} until a bundle changes.
+ */
+@RestController
+@RequestMapping("${i18n.export.path:/i18n/messages}")
+public class LocaleBundleController {
+
+    private final LocaleBundleExporter exporter;
+
+    public LocaleBundleController(LocaleBundleExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @GetMapping({"", "/{locale}"})
+    public ResponseEntity<byte[]> messages(@PathVariable(name = "locale", required = false) String locale,
+                                           @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                           WebRequest request) {
+        Locale localeToUse = StringUtils.hasText(locale) ? StringUtils.parseLocale(locale) : LocaleContextHolder.getLocale();
+        LocaleBundleExport export = this.exporter.exportMessages(localeToUse != null ? localeToUse : Locale.getDefault());
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        // Sets the ETag header, and the 304 status when it matches If-None-Match.
+        if (request.checkNotModified(gzip ? export.getGzipETag() : export.getETag())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(export.getGzip());
+        }
+        return response.body(export.getJson());
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.demo.web;
+
+import com.github.demo.support.LocaleChainScope;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Opens a {@link LocaleChainScope} for each request, so that the bundle chain of a locale is resolved by
+ * the first message lookup of the request and reused by the following ones.
+ */
+public class LocaleChainFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LocaleChainScope previous = LocaleChainScope.open(true);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            LocaleChainScope.restore(previous);
+        }
+    }
+}
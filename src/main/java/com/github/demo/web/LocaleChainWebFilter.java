@@ -0,0 +1,43 @@
+package com.github.demo.web;
+
+import com.github.demo.support.ConfigBackendMessageSource;
+import com.github.demo.support.LocaleChain;
+import org.springframework.lang.Nullable;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Locale;
+
+/**
+ * Resolves the bundle chain of the request locale once, without blocking: missing bundles are fetched in
+ * background and left out of the chain. The chain is stored as the {@link LocaleChain#CONTEXT_KEY} exchange
+ * attribute and in the Reactor context, for
+ * {@link ConfigBackendMessageSource#getMessage(String, Object[], String, LocaleChain)}.
+ * <p>
+ * Unlike the servlet filter, no chain is bound to the thread, since the request may hop threads: plain
+ * {@code MessageSource.getMessage} calls made while handling the request do not use it.
+ */
+public class LocaleChainWebFilter implements WebFilter {
+
+    private final ConfigBackendMessageSource messageSource;
+
+    public LocaleChainWebFilter(ConfigBackendMessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Locale locale = exchange.getLocaleContext().getLocale();
+        LocaleChain localeChain = this.messageSource.resolveChain(locale != null ? locale : Locale.getDefault(), false);
+        exchange.getAttributes().put(LocaleChain.CONTEXT_KEY, localeChain);
+        return chain.filter(exchange).subscriberContext(Context.of(LocaleChain.CONTEXT_KEY, localeChain));
+    }
+
+    @Nullable
+    public static LocaleChain getLocaleChain(ServerWebExchange exchange) {
+        return exchange.getAttribute(LocaleChain.CONTEXT_KEY);
+    }
+}
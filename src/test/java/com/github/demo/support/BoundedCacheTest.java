@@ -0,0 +1,36 @@
+package com.github.demo.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void overweightEntryIsKeptOutsideTheBudget() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0, 4, String::length);
+        cache.put("small", "abc");
+        cache.put("large", "abcdefgh");
+        assertEquals("abcdefgh", cache.get("large"));
+        assertEquals("abc", cache.get("small"));
+        assertEquals(3, cache.stats().getWeightedSize());
+        assertEquals(0, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void evictedEntriesAreReported() {
+        List<String> evicted = new ArrayList<>();
+        BoundedCache<String, String> cache = new BoundedCache<>(1, 0, value -> 1, (key, value) -> evicted.add(key));
+        cache.put("first", "1");
+        cache.put("first", "2");
+        cache.remove("first");
+        assertTrue(evicted.isEmpty());
+        cache.put("first", "1");
+        cache.put("second", "2");
+        assertEquals(1, cache.size());
+        assertEquals(1, evicted.size());
+    }
+}
@@ -0,0 +1,297 @@
+package com.github.demo.support;
+
+import com.github.demo.context.MessageSourceProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigBackendMessageSourceTest {
+
+    private static MessageSourceProperties properties() {
+        MessageSourceProperties properties = new MessageSourceProperties();
+        properties.setFallbackToSystemLocale(false);
+        return properties;
+    }
+
+    @Test
+    void preloadSurvivesBackendThatCannotList() {
+        InMemoryConfigBackend backend = new InMemoryConfigBackend() {
+            @Override
+            public Map<String, BundleContent> list(String prefix) {
+                throw new IllegalStateException("consul down");
+            }
+        };
+        backend.put("messages", "hello=Hello");
+        MessageSourceProperties properties = properties();
+        properties.setPreload(true);
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties, backend);
+        try {
+            assertDoesNotThrow(source::start);
+            assertTrue(source.isRunning());
+            assertFalse(source.isPreloaded());
+            // Fell back to the bundles of the default locale.
+            assertEquals(1, source.getCacheStats().get("bundles").getSize());
+            assertEquals("Hello", source.getMessage("hello", null, Locale.ROOT));
+        } finally {
+            source.stop();
+        }
+    }
+
+    @Test
+    void preloadKeepsLoadingAfterTimeout() throws InterruptedException {
+        AtomicInteger fetches = new AtomicInteger();
+        InMemoryConfigBackend backend = new InMemoryConfigBackend() {
+            @Override
+            public BundleContent fetch(String key) {
+                fetches.incrementAndGet();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.fetch(key);
+            }
+        };
+        backend.put("messages", "hello=Hello");
+        MessageSourceProperties properties = properties();
+        properties.setPreload(true);
+        properties.setPreloadLocales(Collections.singletonList(Locale.ROOT));
+        properties.setPreloadTimeoutMs(50);
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties, backend);
+        try {
+            source.start();
+            assertTrue(source.isPreloading());
+            assertFalse(source.isPreloaded());
+            assertEquals("Hello", source.getMessage("hello", null, Locale.ROOT));
+            assertTrue(Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().startsWith("i18n-memory-preload-"))
+                    .allMatch(Thread::isDaemon));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (source.isPreloading() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertFalse(source.isPreloading());
+            assertTrue(source.isPreloaded());
+            assertEquals(1, source.getCacheStats().get("bundles").getSize());
+            assertEquals(1, fetches.get(), "request shared the preload fetch");
+        } finally {
+            source.destroy();
+        }
+    }
+
+    @Test
+    void snapshotIsKeptWhileUnreachableAndDroppedOnceDeleted(@TempDir Path snapshots) throws Exception {
+        MessageSourceProperties properties = properties();
+        properties.setSnapshotDir(snapshots.toString());
+        InMemoryConfigBackend backend = new InMemoryConfigBackend();
+        backend.put("messages", "hello=Hello");
+        ConfigBackendMessageSource first = new ConfigBackendMessageSource(properties, backend);
+        assertEquals("Hello", first.getMessage("hello", null, Locale.ROOT));
+        first.destroy();
+        assertEquals(1, snapshotFiles(snapshots));
+
+        ConfigBackend unreachable = new ConfigBackend() {
+            @Override
+            public String getName() {
+                return "memory";
+            }
+
+            @Override
+            public BundleContent fetch(String key) {
+                throw new IllegalStateException("config server down");
+            }
+        };
+        ConfigBackendMessageSource second = new ConfigBackendMessageSource(properties, unreachable);
+        Thread.sleep(200);
+        assertEquals("Hello", second.getMessage("hello", null, "default", Locale.ROOT));
+        second.destroy();
+        assertEquals(1, snapshotFiles(snapshots));
+
+        ConfigBackendMessageSource third = new ConfigBackendMessageSource(properties, new InMemoryConfigBackend());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"default".equals(third.getMessage("hello", null, "default", Locale.ROOT))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("default", third.getMessage("hello", null, "default", Locale.ROOT));
+        third.destroy();
+        assertEquals(0, snapshotFiles(snapshots));
+    }
+
+    private static long snapshotFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".bundle")).count();
+        }
+    }
+
+    @Test
+    void bundleMissingFromMergedTableIsPickedUpOncePublished() throws InterruptedException {
+        InMemoryConfigBackend backend = new InMemoryConfigBackend() {
+            @Override
+            public void watch(String key, BundleContent content, BundleListener listener) {
+                // Not watched, as missing keys in Consul KEY mode.
+            }
+        };
+        backend.put("messages", "hello=Hello");
+        MessageSourceProperties properties = properties();
+        properties.setFlattenedLookup(true);
+        properties.setMissingBackoffMs(10);
+        properties.setMissingBackoffJitter(0);
+        properties.setDelayMs(10);
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties, backend);
+        source.start();
+        try {
+            assertEquals("Hello", source.getMessage("hello", null, Locale.FRENCH));
+            // Longer than the backoff: the miss would have expired as idle.
+            Thread.sleep(100);
+            backend.put("messages_fr", "hello=Bonjour");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!"Bonjour".equals(source.getMessage("hello", null, Locale.FRENCH))
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals("Bonjour", source.getMessage("hello", null, Locale.FRENCH));
+        } finally {
+            source.destroy();
+        }
+    }
+
+    @Test
+    void bundleLargerThanMessageLimitIsNotFetchedAgain() {
+        AtomicInteger fetches = new AtomicInteger();
+        InMemoryConfigBackend backend = new InMemoryConfigBackend() {
+            @Override
+            public BundleContent fetch(String key) {
+                fetches.incrementAndGet();
+                return super.fetch(key);
+            }
+        };
+        backend.put("messages", "hello=Hello\nbye=Bye");
+        MessageSourceProperties properties = properties();
+        properties.setCacheMaxMessages(1);
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties, backend);
+        try {
+            for (int i = 0; i < 5; i++) {
+                assertEquals("Hello", source.getMessage("hello", null, Locale.ROOT));
+            }
+            assertEquals(1, fetches.get());
+        } finally {
+            source.destroy();
+        }
+    }
+
+    @Test
+    void evictedBundleIsNoLongerWatched() {
+        InMemoryConfigBackend backend = new InMemoryConfigBackend();
+        backend.put("messages", "hello=Hello");
+        backend.put("messages_fr", "hello=Bonjour");
+        MessageSourceProperties properties = properties();
+        properties.setCacheMaxBundles(1);
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties, backend);
+        try {
+            assertEquals("Hello", source.getMessage("hello", null, Locale.ROOT));
+            assertTrue(backend.isWatching("messages"));
+            assertEquals("Bonjour", source.getMessage("hello", null, Locale.FRENCH));
+            assertEquals(1, source.getCacheStats().get("bundles").getSize());
+            // Only the bundle still cached keeps its watch.
+            assertEquals(1, Stream.of("messages", "messages_fr").filter(backend::isWatching).count());
+        } finally {
+            source.destroy();
+        }
+    }
+
+    @Test
+    void fetchReturningAfterWatchUpdateDoesNotOverwriteIt() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        InMemoryConfigBackend backend = new InMemoryConfigBackend() {
+            @Override
+            public BundleContent fetch(String key) {
+                BundleContent content = super.fetch(key);
+                if (Thread.currentThread().getName().equals("slow-fetch")) {
+                    fetching.countDown();
+                    try {
+                        updated.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return content;
+            }
+        };
+        backend.put("messages", "hello=Hello");
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties(), backend);
+        try {
+            assertEquals("Hello", source.getMessage("hello", null, Locale.ROOT));
+            Thread slowFetch = new Thread(() -> source.loadInitialProperties("messages"), "slow-fetch");
+            slowFetch.start();
+            assertTrue(fetching.await(5, TimeUnit.SECONDS));
+            // Pushed to the watch listener while the fetch of the previous content is in flight.
+            backend.put("messages", "hello=Hello again");
+            updated.countDown();
+            slowFetch.join(5000);
+            assertEquals("Hello again", source.getMessage("hello", null, Locale.ROOT));
+        } finally {
+            source.destroy();
+        }
+    }
+
+    @Test
+    void stoppedSourceNoLongerRechecksMissingBundles() throws InterruptedException {
+        AtomicInteger fetches = new AtomicInteger();
+        ConfigBackend backend = new ConfigBackend() {
+            @Override
+            public String getName() {
+                return "counting";
+            }
+
+            @Override
+            public BundleContent fetch(String key) {
+                fetches.incrementAndGet();
+                return null;
+            }
+        };
+        MessageSourceProperties properties = properties();
+        properties.setMissingBackoffMs(10);
+        properties.setMissingBackoffJitter(0);
+        properties.setDelayMs(10);
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties, backend);
+        source.start();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("default", source.getMessage("hello", null, "default", Locale.ROOT));
+            Thread.sleep(20);
+        }
+        assertTrue(fetches.get() > 1, "missing bundle re-checked while running");
+
+        source.stop();
+        Thread.sleep(50);
+        int fetched = fetches.get();
+        Thread.sleep(200);
+        assertEquals(fetched, fetches.get(), "no re-check once stopped");
+
+        source.destroy();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (backgroundThreads("i18n-counting-") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, backgroundThreads("i18n-counting-"));
+    }
+
+    private static long backgroundThreads(String prefix) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().startsWith(prefix))
+                .count();
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.demo.support;
+
+import com.ecwid.consul.v1.ConsulClient;
+import com.ecwid.consul.v1.QueryParams;
+import com.ecwid.consul.v1.Response;
+import com.ecwid.consul.v1.kv.model.GetValue;
+import com.github.demo.context.ConsulMessageSourceProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.consul.config.ConsulConfigProperties;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsulConfigBackendTest {
+
+    /**
+     * Consul KV store answering the non-blocking and blocking queries at once.
+     */
+    private static final class FakeConsul extends ConsulClient {
+
+        private final Map<String, GetValue> values = new ConcurrentHashMap<>();
+
+        private long index = 10;
+
+        synchronized void put(String key, String value) {
+            GetValue getValue = new GetValue();
+            getValue.setKey(key);
+            getValue.setValue(Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)));
+            getValue.setModifyIndex(++this.index);
+            this.values.put(key, getValue);
+        }
+
+        synchronized void delete(String key) {
+            this.values.remove(key);
+            this.index++;
+        }
+
+        @Override
+        public synchronized Response<GetValue> getKVValue(String key, String token, QueryParams queryParams) {
+            return new Response<>(this.values.get(key), this.index, true, 0L);
+        }
+
+        @Override
+        public synchronized Response<List<GetValue>> getKVValues(String prefix, String token, QueryParams queryParams) {
+            List<GetValue> result = new ArrayList<>();
+            this.values.forEach((key, value) -> {
+                if (key.startsWith(prefix)) {
+                    result.add(value);
+                }
+            });
+            return new Response<>(result, this.index, true, 0L);
+        }
+    }
+
+    @Test
+    void bundleDeletedUnderPrefixIsNoLongerServed() {
+        FakeConsul consul = new FakeConsul();
+        consul.put("messages", "hello=Hello");
+        consul.put("messages_fr", "hello=Bonjour");
+        ConsulMessageSourceProperties properties = new ConsulMessageSourceProperties();
+        properties.setFallbackToSystemLocale(false);
+        properties.setWatchMode(ConsulMessageSourceProperties.WatchMode.PREFIX);
+        ConsulConfigBackend backend = new ConsulConfigBackend(consul, new ConsulConfigProperties(), properties,
+                new ThreadPoolTaskScheduler());
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties, backend);
+        try {
+            assertEquals("Bonjour", source.getMessage("hello", null, Locale.FRENCH));
+            backend.watchCycle();
+            assertEquals("Bonjour", source.getMessage("hello", null, Locale.FRENCH));
+
+            consul.delete("messages_fr");
+            backend.watchCycle();
+            assertEquals("Hello", source.getMessage("hello", null, Locale.FRENCH));
+
+            consul.put("messages_fr", "hello=Salut");
+            backend.watchCycle();
+            assertEquals("Salut", source.getMessage("hello", null, Locale.FRENCH));
+        } finally {
+            source.destroy();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.demo.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTemplateTest {
+
+    @Test
+    void formatsLikeMessageFormat() {
+        String pattern = "Hello {0}, you have {1} new ''messages'' {2}";
+        Object[] args = {"Alice", 1234567, null};
+        assertEquals(new MessageFormat(pattern, Locale.US).format(args),
+                MessageTemplate.compile(pattern).format(args, Locale.US));
+    }
+
+    @Test
+    void reentrantArgumentDoesNotClobberOuterBuffer() {
+        MessageTemplate label = MessageTemplate.compile("status {0} of {1}");
+        // Like an enum or MessageSourceResolvable argument resolving its own message in toString().
+        Object reentrant = new Object() {
+            @Override
+            public String toString() {
+                return label.format(new Object[]{"shipped", "order 42"}, Locale.US);
+            }
+        };
+        MessageTemplate outer = MessageTemplate.compile("Dear {0}, your {1} has changed: {2}.");
+        assertEquals("Dear Bob, your order has changed: status shipped of order 42.",
+                outer.format(new Object[]{"Bob", "order", reentrant}, Locale.US));
+    }
+
+    @Test
+    void formatsOfFewLocalesAreCachedPerThread() {
+        MessageTemplate template = MessageTemplate.compile("{0} items");
+        for (Locale locale : Locale.getAvailableLocales()) {
+            assertEquals(new MessageFormat("{0} items", locale).format(new Object[]{1234}),
+                    template.format(new Object[]{1234}, locale));
+        }
+        assertTrue(MessageTemplate.cachedNumberFormats() <= MessageTemplate.MAX_CACHED_FORMATS);
+    }
+}
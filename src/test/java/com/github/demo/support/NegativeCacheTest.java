@@ -0,0 +1,58 @@
+package com.github.demo.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegativeCacheTest {
+
+    private final AtomicInteger rechecks = new AtomicInteger();
+
+    private final NegativeCache cache = new NegativeCache(16, 10, 10, 0, filename -> rechecks.incrementAndGet(),
+            "negative-cache-test-");
+
+    @AfterEach
+    void shutdown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void idleEntryExpiresWithoutRecheck() throws InterruptedException {
+        cache.recordMiss("messages_en", false);
+        Thread.sleep(100);
+        assertEquals(0, rechecks.get());
+        assertFalse(cache.contains("messages_en"));
+    }
+
+    @Test
+    void requestedEntryIsRechecked() throws InterruptedException {
+        cache.recordMiss("messages_en", false);
+        assertTrue(cache.isMissing("messages_en"));
+        Thread.sleep(100);
+        assertEquals(1, rechecks.get());
+    }
+
+    @Test
+    void watchedEntryIsNeverRechecked() throws InterruptedException {
+        cache.recordMiss("messages_en", true);
+        assertTrue(cache.isMissing("messages_en"));
+        Thread.sleep(100);
+        assertEquals(0, rechecks.get());
+        assertTrue(cache.contains("messages_en"));
+    }
+
+    @Test
+    void pausedEntryIsRecheckedAfterResume() throws InterruptedException {
+        cache.recordMiss("messages_en", false);
+        assertTrue(cache.isMissing("messages_en"));
+        cache.pause();
+        Thread.sleep(100);
+        assertEquals(0, rechecks.get());
+        cache.resume();
+        Thread.sleep(100);
+        assertEquals(1, rechecks.get());
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.demo.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertiesParserTest {
+
+    @Test
+    void largeDocumentParsesLikePropertiesLoad() throws IOException {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; source.length() < 2 * PropertiesParser.PARALLEL_THRESHOLD; i++) {
+            source.append("key.").append(i % 50_000).append(" = value ").append(i).append(" \\\n    continued\n");
+        }
+        Properties expected = new Properties();
+        expected.load(new StringReader(source.toString()));
+
+        Map<String, String> parsed = PropertiesParser.parse(source.toString());
+
+        assertEquals(expected.size(), parsed.size());
+        expected.stringPropertyNames().forEach(key -> assertEquals(expected.getProperty(key), parsed.get(key), key));
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.demo.support;
+
+import com.github.demo.context.MessageSourceProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveMessageSourceTest {
+
+    @Test
+    void loadedMessageIsNotEmittedOnLoaderThread() {
+        InMemoryConfigBackend backend = new InMemoryConfigBackend();
+        backend.put("messages", "hello=Hello");
+        MessageSourceProperties properties = new MessageSourceProperties();
+        properties.setFallbackToSystemLocale(false);
+        ConfigBackendMessageSource source = new ConfigBackendMessageSource(properties, backend);
+        try {
+            ReactiveMessageSource reactive = new ReactiveMessageSource(source);
+            String thread = reactive.getMessageReactive("hello", null, Locale.ROOT)
+                    .map(message -> Thread.currentThread().getName())
+                    .block(Duration.ofSeconds(5));
+            assertNotNull(thread);
+            assertFalse(thread.startsWith("i18n-memory-loader-"), thread);
+            assertEquals("Hello", reactive.getMessageReactive("hello", null, Locale.ROOT).block(Duration.ofSeconds(5)));
+        } finally {
+            source.destroy();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.demo.support;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedConfigBackendTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void instancesSharingDirectoryDoNotOverlapLocks() throws Exception {
+        InMemoryConfigBackend backend = new InMemoryConfigBackend();
+        backend.put("messages", "hello=Hello");
+        // Zero TTL: every fetch goes through the file lock.
+        SharedConfigBackend first = new SharedConfigBackend(backend, directory.toString(), 0, 0);
+        SharedConfigBackend second = new SharedConfigBackend(backend, directory.toString(), 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<BundleContent>> fetches = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                SharedConfigBackend shared = i % 2 == 0 ? first : second;
+                fetches.add(executor.submit(() -> shared.fetch("messages")));
+            }
+            for (Future<BundleContent> fetch : fetches) {
+                assertEquals("hello=Hello", fetch.get(10, TimeUnit.SECONDS).getContent());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void freshBundleIsServedFromSharedDirectory() {
+        InMemoryConfigBackend backend = new InMemoryConfigBackend();
+        backend.put("messages", "hello=Hello");
+        SharedConfigBackend first = new SharedConfigBackend(backend, directory.toString(), 60000, 1000);
+        assertEquals("hello=Hello", first.fetch("messages").getContent());
+
+        SharedConfigBackend second = new SharedConfigBackend(backend, directory.toString(), 60000, 1000);
+        backend.remove("messages");
+        assertEquals("hello=Hello", second.fetch("messages").getContent());
+        assertEquals(1, second.stats().getHitCount());
+        assertEquals(0, second.stats().getMissCount());
+    }
+
+    @Test
+    void backendsOfDifferentScopesDoNotShareBundles() {
+        InMemoryConfigBackend namespaceA = scoped("public/GROUP_A");
+        namespaceA.put("messages", "hello=Hello A");
+        InMemoryConfigBackend namespaceB = scoped("public/GROUP_B");
+        namespaceB.put("messages", "hello=Hello B");
+        SharedConfigBackend first = new SharedConfigBackend(namespaceA, directory.toString(), 60000, 1000);
+        SharedConfigBackend second = new SharedConfigBackend(namespaceB, directory.toString(), 60000, 1000);
+
+        assertEquals("hello=Hello A", first.fetch("messages").getContent());
+        assertEquals("hello=Hello B", second.fetch("messages").getContent());
+        assertEquals(0, second.stats().getHitCount());
+        assertEquals("hello=Hello A", new SharedConfigBackend(namespaceA, directory.toString(), 60000, 1000)
+                .fetch("messages").getContent());
+    }
+
+    private static InMemoryConfigBackend scoped(String scope) {
+        return new InMemoryConfigBackend() {
+            @Override
+            public String getScope() {
+                return scope;
+            }
+        };
+    }
+}